@@ -0,0 +1,146 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.Move;
+import chess.ValidMoves;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The calls a game server makes on every move, measured for how much they
+ * allocate rather than how long they take. {@link AllocationBudget} runs these
+ * with JMH's GC profiler and checks bytes/op against the checked-in baseline.
+ * <p>
+ * ChessGame keeps the valid moves of the last position it was asked about,
+ * but in a real game every move is made from a new position. The plain
+ * benchmarks therefore switch position or team on every invocation so each
+ * one starts with a cold cache; the {@code Cached} variants repeat the same
+ * call in one position to measure the cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+
+    @Param({"start", "kiwipete", "rookEndgame", "check"})
+    public String position;
+
+    private ChessGame game;
+    private ChessGame.TeamColor team;
+    private ChessPosition[] teamPieces;
+    private ChessPosition[] opponentPieces;
+    // A legal move in the corpus position and a legal reply to it
+    private ChessMove move;
+    private ChessMove reply;
+    // Which half of its two-invocation cycle each cold benchmark is in
+    private boolean opponentNext;
+    private boolean moveMade;
+
+    @Setup
+    public void setUp() {
+        game = Positions.load(position);
+        team = game.getTeamTurn();
+        teamPieces = Positions.pieces(game, team);
+        opponentPieces = Positions.pieces(game, Positions.opponent(team));
+        ValidMoves moves = game.allValidMoves(team);
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            ValidMoves replies = game.allValidMoves(Positions.opponent(team));
+            game.unmakeMove();
+            if (!replies.isEmpty()) {
+                move = Move.toChessMove(moves.get(i));
+                reply = Move.toChessMove(replies.get(0));
+                return;
+            }
+        }
+        throw new IllegalStateException("No move with a reply in corpus position " + position);
+    }
+
+    /**
+     * Valid moves of every piece of one team, alternating between the side to
+     * move and its opponent so that every invocation generates moves afresh
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        ChessPosition[] pieces = opponentNext ? opponentPieces : teamPieces;
+        opponentNext = !opponentNext;
+        for (ChessPosition start : pieces) {
+            blackhole.consume(game.validMoves(start));
+        }
+    }
+
+    /**
+     * Valid moves of every piece of the side to move, asked again in the same
+     * position, so only the first invocation generates anything
+     */
+    @Benchmark
+    public void validMovesCached(Blackhole blackhole) {
+        for (ChessPosition start : teamPieces) {
+            blackhole.consume(game.validMoves(start));
+        }
+    }
+
+    /**
+     * Validates and makes one move from a position the game has not just
+     * generated moves for, the way a server applies each client move.
+     * Invocations alternate between the move and the reply to it, and the
+     * reply's invocation also takes both back.
+     */
+    @Benchmark
+    public void makeMove() {
+        try {
+            if (!moveMade) {
+                game.makeMove(move);
+            } else {
+                game.makeMove(reply);
+                game.unmakeMove();
+                game.unmakeMove();
+            }
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException(e);
+        }
+        moveMade = !moveMade;
+    }
+
+    /**
+     * Makes and takes back the same move every invocation, so validation
+     * always finds the position's moves already generated
+     */
+    @Benchmark
+    public void makeMoveCached() {
+        try {
+            game.makeMove(move);
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException(e);
+        }
+        game.unmakeMove();
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(team);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(team);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(team);
+    }
+
+    @Benchmark
+    public ChessGame.GameStatus getGameStatus() {
+        return game.getGameStatus(team);
+    }
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * Runs {@link AllocationBenchmark} with JMH's GC profiler and fails if any
+ * benchmark allocates more bytes per operation than its budget in
+ * {@code allocation-baseline.properties}.
+ * <p>
+ * Budgets are keyed by benchmark method and position, e.g.
+ * {@code validMoves.kiwipete=4096}. A benchmark with no budget fails too, so a
+ * new benchmark or position has to be given one deliberately. When a change
+ * lowers allocation, lower the budget in the same commit so it stays enforced.
+ * <p>
+ * Run {@code java -cp benchmarks/target/benchmarks-test-dependencies.jar benchmarks.AllocationBudget}
+ * after {@code mvn package}.
+ */
+public final class AllocationBudget {
+
+    private static final String BASELINE = "/allocation-baseline.properties";
+    // Bytes per operation JMH's GC profiler reports, normalized over the run
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private AllocationBudget() {
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = AllocationBudget.class.getResourceAsStream(BASELINE)) {
+            if (in == null) {
+                throw new IOException("Missing " + BASELINE);
+            }
+            budgets.load(in);
+        }
+
+        Options options = new OptionsBuilder()
+                .include(AllocationBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        boolean withinBudget = true;
+        System.out.printf("%n%-28s %12s %12s%n", "Allocation", "bytes/op", "budget");
+        for (RunResult result : results) {
+            String benchmark = result.getParams().getBenchmark();
+            String key = benchmark.substring(benchmark.lastIndexOf('.') + 1)
+                    + "." + result.getParams().getParam("position");
+            Result<?> allocation = result.getSecondaryResults().get(ALLOCATION_METRIC);
+            if (allocation == null) {
+                throw new IllegalStateException("GC profiler did not report " + ALLOCATION_METRIC);
+            }
+            double bytes = allocation.getScore();
+            String budget = budgets.getProperty(key);
+            String verdict;
+            if (budget == null) {
+                verdict = "NO BUDGET";
+                withinBudget = false;
+            } else if (bytes > Double.parseDouble(budget)) {
+                verdict = "OVER BUDGET";
+                withinBudget = false;
+            } else {
+                verdict = "";
+            }
+            System.out.printf("%-28s %,12.0f %12s %s%n", key, bytes, budget == null ? "-" : budget, verdict);
+        }
+        if (!withinBudget) {
+            System.exit(1);
+        }
+    }
+}
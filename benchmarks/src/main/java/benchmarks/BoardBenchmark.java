@@ -0,0 +1,59 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Setting up, copying and comparing boards, per corpus position
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"start", "kiwipete", "middlegame", "rookEndgame"})
+    public String position;
+
+    private ChessBoard board;
+    private ChessBoard equalBoard;
+    private ChessBoard scratch;
+
+    @Setup
+    public void setUp() {
+        board = Positions.load(position).getBoard();
+        equalBoard = Positions.load(position).getBoard();
+        scratch = new ChessBoard();
+    }
+
+    @Benchmark
+    public ChessBoard resetBoard() {
+        scratch.resetBoard();
+        return scratch;
+    }
+
+    @Benchmark
+    public ChessBoard copy() {
+        return new ChessBoard(board);
+    }
+
+    @Benchmark
+    public ChessBoard copyFrom() {
+        scratch.copyFrom(board);
+        return scratch;
+    }
+
+    @Benchmark
+    public boolean equalsEqualBoard() {
+        return board.equals(equalBoard);
+    }
+
+    @Benchmark
+    public int hashCodeBoard() {
+        return board.hashCode();
+    }
+}
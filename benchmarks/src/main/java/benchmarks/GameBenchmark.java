@@ -0,0 +1,92 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legal move generation and game status checks through the public ChessGame
+ * API, per corpus position, for the side to move. validMoves alternates
+ * teams so it measures generation rather than ChessGame's move cache;
+ * validMovesCached measures the cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    @Param({"start", "opening", "kiwipete", "middlegame", "tactical",
+            "rookEndgame", "pawnEndgame", "check", "checkmate", "stalemate"})
+    public String position;
+
+    private ChessGame game;
+    private ChessGame.TeamColor team;
+    private ChessPosition[] teamPieces;
+    private ChessPosition[] opponentPieces;
+    private boolean opponentNext;
+
+    @Setup
+    public void setUp() {
+        game = Positions.load(position);
+        team = game.getTeamTurn();
+        teamPieces = Positions.pieces(game, team);
+        opponentPieces = Positions.pieces(game, Positions.opponent(team));
+    }
+
+    /**
+     * Valid moves of every piece of one team, as a client highlighting moves
+     * would ask for them. Alternates between the side to move and its
+     * opponent, so each invocation generates the moves once and looks up the
+     * rest.
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        ChessPosition[] pieces = opponentNext ? opponentPieces : teamPieces;
+        opponentNext = !opponentNext;
+        for (ChessPosition start : pieces) {
+            blackhole.consume(game.validMoves(start));
+        }
+    }
+
+    /**
+     * Valid moves of every piece of the side to move, asked again in the same
+     * position, so every call is answered from the game's cache
+     */
+    @Benchmark
+    public void validMovesCached(Blackhole blackhole) {
+        for (ChessPosition start : teamPieces) {
+            blackhole.consume(game.validMoves(start));
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(team);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(team);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(team);
+    }
+
+    @Benchmark
+    public ChessGame.GameStatus getGameStatus() {
+        return game.getGameStatus(team);
+    }
+
+    @Benchmark
+    public boolean hasLegalMove() {
+        return game.hasLegalMove(team);
+    }
+}
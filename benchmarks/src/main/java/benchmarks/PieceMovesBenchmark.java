@@ -0,0 +1,61 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pseudo-legal move generation through the public ChessPiece.pieceMoves,
+ * one piece type at a time. Each invocation generates moves for every piece
+ * of that type, of both colors, in every corpus position.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceMovesBenchmark {
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType type;
+
+    private ChessBoard[] boards;
+    private ChessPosition[] positions;
+    private ChessPiece[] pieces;
+
+    @Setup
+    public void setUp() {
+        List<ChessBoard> boardList = new ArrayList<>();
+        List<ChessPosition> positionList = new ArrayList<>();
+        for (String name : Positions.CORPUS.keySet()) {
+            ChessBoard board = Positions.load(name).getBoard();
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                for (ChessPosition position : board.getPositions(color, type)) {
+                    boardList.add(board);
+                    positionList.add(position);
+                }
+            }
+        }
+        boards = boardList.toArray(new ChessBoard[0]);
+        positions = positionList.toArray(new ChessPosition[0]);
+        pieces = new ChessPiece[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            pieces[i] = boards[i].getPiece(positions[i]);
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (int i = 0; i < pieces.length; i++) {
+            blackhole.consume(pieces[i].pieceMoves(boards[i], positions[i]));
+        }
+    }
+}
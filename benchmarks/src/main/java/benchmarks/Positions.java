@@ -0,0 +1,66 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The corpus of positions every benchmark runs over, covering the opening,
+ * busy middlegames, endgames and the game-over cases the status checks care
+ * about. Names are used as JMH {@code @Param} values.
+ */
+final class Positions {
+
+    static final Map<String, String> CORPUS = new LinkedHashMap<>();
+
+    static {
+        CORPUS.put("start", Fen.START_POSITION);
+        CORPUS.put("opening", "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+        CORPUS.put("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        CORPUS.put("middlegame", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        CORPUS.put("tactical", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+        CORPUS.put("rookEndgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        CORPUS.put("pawnEndgame", "8/8/4k3/3p1p2/3P1P2/4K3/8/8 w - - 0 1");
+        CORPUS.put("check", "rnbqkbnr/ppp2ppp/3p4/1B2p3/4P3/8/PPPP1PPP/RNBQK1NR b KQkq - 1 3");
+        CORPUS.put("checkmate", "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        CORPUS.put("stalemate", "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+    }
+
+    private Positions() {
+    }
+
+    /**
+     * @return a fresh game in the named corpus position
+     */
+    static ChessGame load(String name) {
+        String fen = CORPUS.get(name);
+        if (fen == null) {
+            throw new IllegalArgumentException("No corpus position named " + name);
+        }
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return the squares of every piece of a team, kings first
+     */
+    static ChessPosition[] pieces(ChessGame game, ChessGame.TeamColor team) {
+        List<ChessPosition> positions = new ArrayList<>();
+        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+            positions.addAll(game.getBoard().getPositions(team, type));
+        }
+        return positions.toArray(new ChessPosition[0]);
+    }
+
+    /**
+     * @return the team that is not the given one
+     */
+    static ChessGame.TeamColor opponent(ChessGame.TeamColor team) {
+        return (team == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
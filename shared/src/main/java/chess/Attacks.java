@@ -0,0 +1,237 @@
+package chess;
+
+/**
+ * Precomputed attack tables used by move generation.
+ * <p>
+ * Knight, king and pawn capture sets are plain 64-entry tables indexed by
+ * square.
+ * <p>
+ * Sliding pieces use magic bitboards: the relevant occupancy of a square's
+ * rays is multiplied by a magic number and shifted down to index a table
+ * holding the attack set for that occupancy. The magics are searched for once
+ * at class load with a fixed seed, so the tables are identical on every run.
+ */
+final class Attacks {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    // Seeds that find every magic for a rank quickly with the generator below
+    private static final long[] MAGIC_SEEDS = {728, 10316, 55013, 32803, 12281, 15100, 16645, 255};
+
+    private static final int[][] KNIGHT_OFFSETS = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+    private static final int[][] KING_OFFSETS = {{1, -1}, {1, 0}, {1, 1}, {0, -1}, {0, 1}, {-1, -1}, {-1, 0}, {-1, 1}};
+    private static final int[][] WHITE_PAWN_OFFSETS = {{1, -1}, {1, 1}};
+    private static final int[][] BLACK_PAWN_OFFSETS = {{-1, -1}, {-1, 1}};
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    // Indexed by team color ordinal, then square
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    // Squares strictly between two aligned squares, and the whole line through them
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = offsetAttacks(square, KNIGHT_OFFSETS);
+            KING_ATTACKS[square] = offsetAttacks(square, KING_OFFSETS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = offsetAttacks(square, WHITE_PAWN_OFFSETS);
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = offsetAttacks(square, BLACK_PAWN_OFFSETS);
+            initMagic(square, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_TABLE);
+            initMagic(square, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_TABLE);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long bits = (1L << a) | (1L << b);
+                if ((rookAttacks(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = rookAttacks(a, 1L << b) & rookAttacks(b, 1L << a);
+                    LINE[a][b] = (rookAttacks(a, 0) & rookAttacks(b, 0)) | bits;
+                } else if ((bishopAttacks(a, 0) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = bishopAttacks(a, 1L << b) & bishopAttacks(b, 1L << a);
+                    LINE[a][b] = (bishopAttacks(a, 0) & bishopAttacks(b, 0)) | bits;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * @return every square a knight on the given square attacks
+     */
+    static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @return every square a king on the given square attacks
+     */
+    static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color on the given square captures on
+     */
+    static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * @return every square a rook on the given square attacks, stopping at
+     * (and including) the first occupied square in each direction
+     */
+    static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_TABLE[square][index];
+    }
+
+    /**
+     * @return every square a bishop on the given square attacks, stopping at
+     * (and including) the first occupied square in each direction
+     */
+    static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_TABLE[square][index];
+    }
+
+    /**
+     * @return every square a queen on the given square attacks
+     */
+    static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares on the same row,
+     * column or diagonal, or an empty bitboard if they are not aligned
+     */
+    static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return every square of the row, column or diagonal running through
+     * both squares, or an empty bitboard if they are not aligned
+     */
+    static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    /**
+     * Collects the squares a fixed set of row/column offsets lands on without
+     * leaving the board. Only used to build the tables.
+     */
+    private static long offsetAttacks(int square, int[][] offsets) {
+        long attacks = 0;
+        for (int[] offset : offsets) {
+            int row = square / 8 + offset[0];
+            int col = square % 8 + offset[1];
+            if (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                attacks |= 1L << (row * 8 + col);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Walks each direction from a square until it leaves the board or hits an
+     * occupied square. Only used to build the tables.
+     */
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = square / 8 + direction[0];
+            int col = square % 8 + direction[1];
+            while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static void initMagic(int square, int[][] directions, long[] masks, long[] magics,
+                                  int[] shifts, long[][] tables) {
+        // Board edges never change the attack set, so they are left out of the mask
+        int row = square / 8;
+        int col = square % 8;
+        long edges = ((0xFFL | 0xFF00000000000000L) & ~(0xFFL << (row * 8)))
+                | ((0x0101010101010101L | 0x8080808080808080L) & ~(0x0101010101010101L << col));
+        long mask = slidingAttacks(square, 0, directions) & ~edges;
+        int bits = Long.bitCount(mask);
+        masks[square] = mask;
+        shifts[square] = 64 - bits;
+
+        // Enumerate every subset of the mask with the Carry-Rippler trick
+        int size = 1 << bits;
+        long[] occupancies = new long[size];
+        long[] references = new long[size];
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            references[i] = slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        long[] table = new long[size];
+        int[] epoch = new int[size];
+        long seed = MAGIC_SEEDS[row];
+        for (int attempt = 1; ; attempt++) {
+            long magic;
+            do {
+                seed = nextRandom(seed);
+                long a = seed;
+                seed = nextRandom(seed);
+                long b = seed;
+                seed = nextRandom(seed);
+                magic = a * 2685821657736338717L & b * 2685821657736338717L & seed * 2685821657736338717L;
+            } while (Long.bitCount((magic * mask) >>> 56) < 6);
+
+            boolean found = true;
+            for (int i = 0; i < size; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> shifts[square]);
+                if (epoch[index] < attempt) {
+                    epoch[index] = attempt;
+                    table[index] = references[i];
+                } else if (table[index] != references[i]) {
+                    found = false;
+                    break;
+                }
+            }
+            if (found) {
+                magics[square] = magic;
+                tables[square] = table;
+                return;
+            }
+        }
+    }
+
+    /**
+     * One step of a xorshift generator; the caller scrambles the state
+     */
+    private static long nextRandom(long state) {
+        state ^= state >>> 12;
+        state ^= state << 25;
+        state ^= state >>> 27;
+        return state;
+    }
+}
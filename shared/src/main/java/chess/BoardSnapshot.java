@@ -0,0 +1,94 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * An immutable copy of a game's piece placement and side to move.
+ * <p>
+ * A snapshot is twelve bitboards laid out like {@link ChessBoard}'s, so it
+ * costs one small array to take and can be read from any thread without
+ * locking while the game it came from moves on. The thread that owns a game
+ * should take snapshots with {@link ChessGame#getSnapshot()} and hand those
+ * to observers rather than the live board or game.
+ */
+public final class BoardSnapshot {
+
+    private final long[] bitboards;
+    private final ChessGame.TeamColor teamTurn;
+    private final long zobristKey;
+
+    BoardSnapshot(ChessBoard board, ChessGame.TeamColor teamTurn, long zobristKey) {
+        this.bitboards = new long[ChessBoard.PIECE_KINDS];
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                bitboards[ChessBoard.pieceIndex(color, type)] = board.pieces(color, type);
+            }
+        }
+        this.teamTurn = teamTurn;
+        this.zobristKey = zobristKey;
+    }
+
+    /**
+     * @param position the square to look at
+     * @return the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPiece(ChessPosition position) {
+        long mask = 1L << position.getIndex();
+        for (int piece = 0; piece < ChessBoard.PIECE_KINDS; piece++) {
+            if ((bitboards[piece] & mask) != 0) {
+                return ChessPiece.fromIndex(piece);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return which team was to move when the snapshot was taken
+     */
+    public ChessGame.TeamColor getTeamTurn() {
+        return teamTurn;
+    }
+
+    /**
+     * @return the game's Zobrist key when the snapshot was taken
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Builds a new, mutable board with the snapshot's pieces
+     *
+     * @return a board the caller owns
+     */
+    public ChessBoard toBoard() {
+        ChessBoard board = new ChessBoard();
+        for (int piece = 0; piece < ChessBoard.PIECE_KINDS; piece++) {
+            long squares = bitboards[piece];
+            while (squares != 0) {
+                board.putPiece(Long.numberOfTrailingZeros(squares), piece);
+                squares &= squares - 1;
+            }
+        }
+        return board;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        BoardSnapshot that = (BoardSnapshot) object;
+        return teamTurn == that.teamTurn && Arrays.equals(bitboards, that.bitboards);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(bitboards) + teamTurn.ordinal();
+    }
+
+    @Override
+    public String toString() {
+        return "BoardSnapshot{" + teamTurn + " to move\n" + toBoard() + '}';
+    }
+}
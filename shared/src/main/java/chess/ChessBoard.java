@@ -3,20 +3,73 @@ package chess;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Internally the board is stored as twelve bitboards, one per color/type
+ * combination. Bit {@code (row - 1) * 8 + (col - 1)} of a bitboard is set when
+ * that kind of piece sits on that square, so a1 is bit 0 and h8 is bit 63.
+ * A 64-byte mailbox indexed the same way mirrors the bitboards, holding the
+ * bitboard index of the piece on each square, so finding what stands on a
+ * square is a single array read.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
 
-    private ChessPiece[][] chessBoard;
+    static final int PIECE_KINDS = 12;
+    // Mailbox value of an empty square
+    private static final byte EMPTY = -1;
+    // Bitboard of the light squares (b1, d1, ..., a2, c2, ...)
+    private static final long LIGHT_SQUARES = 0x55AA_55AA_55AA_55AAL;
+
+    private final long[] bitboards;
+    private final long[] colorOccupancy;
+    // Bitboard index of the piece on each square, or EMPTY
+    private final byte[] mailbox;
+    // Zobrist key of the piece placement, kept up to date on every change
+    private long zobristKey;
 
     public ChessBoard() {
-        this.chessBoard = new ChessPiece[8][8];
+        this.bitboards = new long[PIECE_KINDS];
+        this.colorOccupancy = new long[2];
+        this.mailbox = new byte[64];
+        Arrays.fill(mailbox, EMPTY);
+        this.zobristKey = 0;
+    }
+
+    /**
+     * Creates an independent copy of another board
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        this.bitboards = other.bitboards.clone();
+        this.colorOccupancy = other.colorOccupancy.clone();
+        this.mailbox = other.mailbox.clone();
+        this.zobristKey = other.zobristKey;
+    }
+
+    /**
+     * Makes this board an exact copy of another without allocating, e.g. to
+     * reuse one scratch board for trying out moves
+     *
+     * @param other the board to copy
+     */
+    public void copyFrom(ChessBoard other) {
+        System.arraycopy(other.bitboards, 0, bitboards, 0, PIECE_KINDS);
+        System.arraycopy(other.colorOccupancy, 0, colorOccupancy, 0, 2);
+        System.arraycopy(other.mailbox, 0, mailbox, 0, 64);
+        zobristKey = other.zobristKey;
+    }
+
+    /**
+     * @return the bitboard index used for a piece of the given color and type
+     */
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
     }
 
     /**
@@ -24,11 +77,14 @@ public class ChessBoard {
      *
      * @param position where to add the piece to
      * @param piece    the piece to add
+     * @throws IndexOutOfBoundsException if the position is off the board
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        int row = position.getRow();
-        int col = position.getColumn();
-        chessBoard[row - 1][col - 1] = piece;
+        int square = position.getIndex();
+        clearSquare(square);
+        if (piece != null) {
+            putPiece(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -37,11 +93,14 @@ public class ChessBoard {
      * @param position The position to get the piece from
      * @return Either the piece at the position, or null if no piece is at that
      * position
+     * @throws IndexOutOfBoundsException if the position is off the board
      */
     public ChessPiece getPiece(ChessPosition position) {
-        int row = position.getRow();
-        int col = position.getColumn();
-        return chessBoard[row - 1][col - 1];
+        int piece = pieceAt(position.getIndex());
+        if (piece < 0) {
+            return null;
+        }
+        return ChessPiece.fromIndex(piece);
     }
 
     /**
@@ -52,18 +111,7 @@ public class ChessBoard {
      * no piece is at that position
      */
     public Collection<ChessPosition> getPosition(ChessPiece piece) {
-        boolean isEmpty = true;
-        ChessGame.TeamColor color = piece.getTeamColor();
-        Collection<ChessPosition> positions = new ArrayList<>();
-        for (int i = 1; i < 9; i++) {
-            for (int j = 1; j < 9; j++) {
-                ChessPosition currPos = new ChessPosition(i, j);
-                ChessPiece currPiece = getPiece(currPos);
-                if (currPiece == piece) {
-                    positions.add(currPos);
-                }
-            }
-        }
+        Collection<ChessPosition> positions = getPositions(piece.getTeamColor(), piece.getPieceType());
         if (positions.isEmpty()) {
             return null;
         } else {
@@ -71,55 +119,244 @@ public class ChessBoard {
         }
     }
 
+    /**
+     * Gets the positions of every piece of a color and type, read straight
+     * from that piece's bitboard.
+     *
+     * @param color which team's pieces to locate
+     * @param type  which type of piece to locate
+     * @return the positions of those pieces, empty if there are none
+     */
+    public Collection<ChessPosition> getPositions(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        long pieces = bitboards[pieceIndex(color, type)];
+        Collection<ChessPosition> positions = new ArrayList<>(Long.bitCount(pieces));
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            positions.add(ChessPosition.fromIndex(square));
+            pieces &= pieces - 1;
+        }
+        return positions;
+    }
+
+    /**
+     * @param color which team's pieces to count
+     * @param type  which type of piece to count
+     * @return how many of those pieces are on the board
+     */
+    public int pieceCount(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return Long.bitCount(bitboards[pieceIndex(color, type)]);
+    }
+
+    /**
+     * Determines whether neither team has enough pieces left to checkmate the
+     * other by any series of legal moves: kings alone, a single knight or
+     * bishop, or only bishops that all stand on squares of one color.
+     *
+     * @return True if no checkmate is possible with the pieces on the board
+     */
+    public boolean hasInsufficientMaterial() {
+        long heavyOrPawns = 0;
+        long knights = 0;
+        long bishops = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            heavyOrPawns |= pieces(color, ChessPiece.PieceType.PAWN) | pieces(color, ChessPiece.PieceType.ROOK)
+                    | pieces(color, ChessPiece.PieceType.QUEEN);
+            knights |= pieces(color, ChessPiece.PieceType.KNIGHT);
+            bishops |= pieces(color, ChessPiece.PieceType.BISHOP);
+        }
+        if (heavyOrPawns != 0) {
+            return false;
+        } else if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        // Bishops that never leave one square color cannot cover a king's escape squares
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+
+    /**
+     * Gets the Zobrist key of the piece placement. Equal boards always have
+     * equal keys, and the key is updated as pieces are added, moved and
+     * removed rather than recomputed.
+     *
+     * @return the 64-bit key of this board
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Gets where a team's king stands. The king bitboard is updated on every
+     * placement and move, so this is a single bit scan rather than a search.
+     *
+     * @param color which team's king to locate
+     * @return the king's position, or null if that team has no king
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = kingSquare(color);
+        return (square < 64) ? ChessPosition.fromIndex(square) : null;
+    }
+
+    /**
+     * @return the square index of a team's king, or 64 if it has none
+     */
+    int kingSquare(ChessGame.TeamColor color) {
+        return Long.numberOfTrailingZeros(bitboards[pieceIndex(color, ChessPiece.PieceType.KING)]);
+    }
+
+    /**
+     * Determines if a team attacks the given square
+     *
+     * @param position the square to test
+     * @param byColor  which team is attacking
+     * @return True if any piece of byColor attacks the square
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(position.getIndex(), byColor, occupancy());
+    }
+
+    /**
+     * Looks outward from the target square: a piece of byColor attacks it
+     * exactly when that piece type's attack pattern from the target reaches
+     * the piece. Stops at the first attacker found.
+     *
+     * @param occupied the occupancy that blocks sliding pieces
+     */
+    boolean isSquareAttacked(int square, ChessGame.TeamColor byColor, long occupied) {
+        ChessGame.TeamColor defender = ChessGame.opponent(byColor);
+        if ((Attacks.pawnAttacks(defender, square) & pieces(byColor, ChessPiece.PieceType.PAWN)) != 0) {
+            return true;
+        }
+        if ((Attacks.knightAttacks(square) & pieces(byColor, ChessPiece.PieceType.KNIGHT)) != 0) {
+            return true;
+        }
+        if ((Attacks.kingAttacks(square) & pieces(byColor, ChessPiece.PieceType.KING)) != 0) {
+            return true;
+        }
+        long queens = pieces(byColor, ChessPiece.PieceType.QUEEN);
+        long rookLike = pieces(byColor, ChessPiece.PieceType.ROOK) | queens;
+        if (rookLike != 0 && (Attacks.rookAttacks(square, occupied) & rookLike) != 0) {
+            return true;
+        }
+        long bishopLike = pieces(byColor, ChessPiece.PieceType.BISHOP) | queens;
+        return bishopLike != 0 && (Attacks.bishopAttacks(square, occupied) & bishopLike) != 0;
+    }
+
+    /**
+     * @return bitboard of every piece of byColor that attacks the square,
+     * with sliding pieces blocked by the given occupancy
+     */
+    long attackersTo(int square, ChessGame.TeamColor byColor, long occupied) {
+        long queens = pieces(byColor, ChessPiece.PieceType.QUEEN);
+        return (Attacks.pawnAttacks(ChessGame.opponent(byColor), square) & pieces(byColor, ChessPiece.PieceType.PAWN))
+                | (Attacks.knightAttacks(square) & pieces(byColor, ChessPiece.PieceType.KNIGHT))
+                | (Attacks.kingAttacks(square) & pieces(byColor, ChessPiece.PieceType.KING))
+                | (Attacks.rookAttacks(square, occupied) & (pieces(byColor, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishopAttacks(square, occupied) & (pieces(byColor, ChessPiece.PieceType.BISHOP) | queens));
+    }
+
     /**
      * Sets the board to the default starting board.
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        this.chessBoard = new ChessPiece[8][8];
-        // Add white pieces (not pawns)
-        chessBoard[0][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        chessBoard[0][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        chessBoard[0][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        chessBoard[0][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        chessBoard[0][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        chessBoard[0][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        chessBoard[0][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        chessBoard[0][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        // Add black pieces (not pawns)
-        chessBoard[7][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        chessBoard[7][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        chessBoard[7][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        chessBoard[7][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        chessBoard[7][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        chessBoard[7][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        chessBoard[7][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        chessBoard[7][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        // Add pawns (white and black)
-        for (int i=0; i<8; i++) {
-            chessBoard[1][i] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-            chessBoard[6][i] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        Arrays.fill(bitboards, 0L);
+        Arrays.fill(colorOccupancy, 0L);
+        Arrays.fill(mailbox, EMPTY);
+        zobristKey = 0;
+        ChessPiece.PieceType[] backRank = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT,
+                ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.QUEEN,
+                ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK,
+        };
+        for (int col = 0; col < 8; col++) {
+            // Add white and black pieces (not pawns)
+            putPiece(col, pieceIndex(ChessGame.TeamColor.WHITE, backRank[col]));
+            putPiece(56 + col, pieceIndex(ChessGame.TeamColor.BLACK, backRank[col]));
+            // Add pawns (white and black)
+            putPiece(8 + col, pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            putPiece(48 + col, pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
     }
 
+    /**
+     * @return the bitboard index of the piece on a square, or -1 if it is empty
+     */
+    int pieceAt(int square) {
+        return mailbox[square];
+    }
+
+    /**
+     * Places a piece on an empty square
+     */
+    void putPiece(int square, int piece) {
+        long mask = 1L << square;
+        bitboards[piece] |= mask;
+        colorOccupancy[piece / 6] |= mask;
+        mailbox[square] = (byte) piece;
+        zobristKey ^= Zobrist.piece(piece, square);
+    }
+
+    /**
+     * Removes whatever piece is on a square
+     */
+    void clearSquare(int square) {
+        int piece = mailbox[square];
+        if (piece >= 0) {
+            long mask = ~(1L << square);
+            bitboards[piece] &= mask;
+            colorOccupancy[piece / 6] &= mask;
+            mailbox[square] = EMPTY;
+            zobristKey ^= Zobrist.piece(piece, square);
+        }
+    }
+
+    /**
+     * @return the bitboard of every piece of the given color and type
+     */
+    long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return bitboards[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return the bitboard of every square occupied by the given team
+     */
+    long occupancy(ChessGame.TeamColor color) {
+        return colorOccupancy[color.ordinal()];
+    }
+
+    /**
+     * @return the bitboard of every occupied square
+     */
+    long occupancy() {
+        return colorOccupancy[0] | colorOccupancy[1];
+    }
+
     @Override
     public boolean equals(Object object) {
         if (object == null || getClass() != object.getClass()) {
             return false;
         }
         ChessBoard that = (ChessBoard) object;
-        return Objects.deepEquals(chessBoard, that.chessBoard);
+        return Arrays.equals(bitboards, that.bitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(chessBoard);
+        return (int) (zobristKey ^ (zobristKey >>> 32));
     }
 
     @Override
     public String toString() {
-        return "ChessBoard{" +
-                "chessBoard=" + Arrays.toString(chessBoard) +
-                '}';
+        StringBuilder text = new StringBuilder("ChessBoard{\n");
+        for (int row = 8; row >= 1; row--) {
+            text.append('|');
+            for (int col = 1; col <= 8; col++) {
+                int piece = pieceAt((row - 1) * 8 + (col - 1));
+                text.append(piece < 0 ? ' ' : "KQBNRPkqbnrp".charAt(piece)).append('|');
+            }
+            text.append('\n');
+        }
+        return text.append('}').toString();
     }
 }
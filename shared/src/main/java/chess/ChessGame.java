@@ -1,8 +1,8 @@
 package chess;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Objects;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -12,14 +12,84 @@ import java.util.HashSet;
  */
 public class ChessGame {
 
+    // Castling rights bits: white kingside, white queenside, black kingside,
+    // black queenside. Each team's two bits start at CASTLE_KINGSIDE << (2 * ordinal)
+    static final int CASTLE_KINGSIDE = 1;
+    static final int CASTLE_QUEENSIDE = 1 << 1;
+    static final int ALL_CASTLING_RIGHTS = 0xF;
+    // En passant square value when no en passant capture is possible
+    static final int NO_EN_PASSANT = 64;
+    // Castling rights kept when a move starts or ends on each square: moving
+    // a king or rook, or capturing a rook, gives up castling on that side
+    private static final int[] CASTLING_RIGHTS_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_RIGHTS_KEPT, ALL_CASTLING_RIGHTS);
+        CASTLING_RIGHTS_KEPT[4] &= ~(CASTLE_KINGSIDE | CASTLE_QUEENSIDE);
+        CASTLING_RIGHTS_KEPT[7] &= ~CASTLE_KINGSIDE;
+        CASTLING_RIGHTS_KEPT[0] &= ~CASTLE_QUEENSIDE;
+        CASTLING_RIGHTS_KEPT[60] &= ~((CASTLE_KINGSIDE | CASTLE_QUEENSIDE) << 2);
+        CASTLING_RIGHTS_KEPT[63] &= ~(CASTLE_KINGSIDE << 2);
+        CASTLING_RIGHTS_KEPT[56] &= ~(CASTLE_QUEENSIDE << 2);
+    }
+
+    // Undo record layout: captured piece index + 1 in bits 0-3, castling
+    // rights in bits 4-7, en passant square in bits 8-14, halfmove clock
+    // from bit 15 up
+    private static final int UNDO_CASTLING_SHIFT = 4;
+    private static final int UNDO_EN_PASSANT_SHIFT = 8;
+    private static final int UNDO_CLOCK_SHIFT = 15;
+    // Plies without a capture or pawn move after which the game is drawn
+    private static final int FIFTY_MOVE_PLIES = 100;
+    // A checkpoint of the whole game state is kept every this many plies
+    private static final int CHECKPOINT_INTERVAL = 16;
+    // Checkpoint state layout: castling rights in bits 0-3, en passant square
+    // in bits 4-10, side to move (TeamColor ordinal) in bit 11, halfmove
+    // clock from bit 12 up
+    private static final int CHECKPOINT_EN_PASSANT_SHIFT = 4;
+    private static final int CHECKPOINT_TURN_SHIFT = 11;
+    private static final int CHECKPOINT_CLOCK_SHIFT = 12;
+
     private TeamColor teamTurn;
     private ChessBoard board;
-    private boolean[] couldCastle;
-    private boolean couldEnPassant;
+    // 4-bit mask of the castling moves still allowed, see CASTLE_KINGSIDE
+    private int castlingRights;
+    // Square a pawn capturing en passant would move to, or NO_EN_PASSANT
+    private int enPassantSquare;
+    // Plies since the last capture or pawn move
+    private int halfmoveClock;
+    // Move history indexed by ply, the number of moves made since the game's
+    // starting position. Entries below undoSize are the moves that led to the
+    // current position and can be taken back with unmakeMove(); entries from
+    // undoSize up to historySize were taken back and can be made again.
+    private int[] undoMoves;
+    private int[] undoRecords;
+    // Zobrist key of the position each move was made from
+    private long[] undoKeys;
+    private int undoSize;
+    private int historySize;
+    // Board and checkpoint state at every CHECKPOINT_INTERVAL-th ply of the
+    // history, valid for the first checkpointCount entries. Checkpoint boards
+    // are never modified, so copies of a game can share them. Checkpoints
+    // only speed up seek, so they are not serialized; a deserialized game has
+    // none and seeks by unmaking and redoing moves.
+    private transient ChessBoard[] checkpointBoards;
+    private transient int[] checkpointStates;
+    private transient int checkpointCount;
+    // Every legal move of legalMovesTeam in the position whose Zobrist key is
+    // legalMovesKey; any change to the position changes the key. Derived
+    // from the position, so left out when the game is serialized.
+    private transient ValidMoves legalMoves;
+    private transient TeamColor legalMovesTeam;
+    private transient long legalMovesKey;
+    // Reused to generate into before the moves are grouped by square
+    private final transient MoveList generated = new MoveList();
+    // Snapshot of the last position getSnapshot was called in, not serialized
+    private transient BoardSnapshot snapshot;
 
     // This is supposed to make the class able to be initialized without giving a teamTurn
     public ChessGame() {
-        new ChessGame(TeamColor.WHITE);
+        this(TeamColor.WHITE);
     }
 
     public ChessGame(TeamColor teamTurn) {
@@ -28,10 +98,40 @@ public class ChessGame {
         // Initialize the board
         this.board = new ChessBoard();
         this.board.resetBoard();
-        // Initialize castling (kingside white, queenside white, kingside black, queenside black)
-        this.couldCastle = new boolean[]{true, true, true, true};
-        // Initialize enPassant tracker
-        this.couldEnPassant = false;
+        // Every castling move is still allowed and no pawn has moved yet
+        this.castlingRights = ALL_CASTLING_RIGHTS;
+        this.enPassantSquare = NO_EN_PASSANT;
+        this.halfmoveClock = 0;
+        this.undoMoves = new int[64];
+        this.undoRecords = new int[64];
+        this.undoKeys = new long[64];
+        this.undoSize = 0;
+        this.historySize = 0;
+        this.checkpointBoards = new ChessBoard[4];
+        this.checkpointStates = new int[4];
+        this.checkpointCount = 0;
+    }
+
+    /**
+     * Creates an independent copy of another game, including its board and
+     * the moves that can be taken back with unmakeMove
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        this.teamTurn = other.teamTurn;
+        this.board = new ChessBoard(other.board);
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.halfmoveClock = other.halfmoveClock;
+        this.undoMoves = other.undoMoves.clone();
+        this.undoRecords = other.undoRecords.clone();
+        this.undoKeys = other.undoKeys.clone();
+        this.undoSize = other.undoSize;
+        this.historySize = other.historySize;
+        this.checkpointBoards = other.checkpointBoards.clone();
+        this.checkpointStates = other.checkpointStates.clone();
+        this.checkpointCount = other.checkpointCount;
     }
 
     /**
@@ -58,6 +158,36 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * Where a game stands for one team, as reported by {@link #getGameStatus}
+     */
+    public enum GameStatus {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        // The same position has come up for the third time
+        DRAW_BY_REPETITION,
+        // Fifty moves by each side without a capture or pawn move
+        DRAW_BY_FIFTY_MOVE_RULE,
+        // Neither team has the pieces left to give checkmate
+        DRAW_BY_INSUFFICIENT_MATERIAL;
+
+        /**
+         * @return true if the game is over, won or drawn
+         */
+        public boolean isGameOver() {
+            return this != ONGOING && this != CHECK;
+        }
+    }
+
+    /**
+     * @return the other team
+     */
+    static TeamColor opponent(TeamColor teamColor) {
+        return (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
     /**
      * Gets valid move(s) for a piece at the given location
      *
@@ -66,14 +196,32 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        // TODO: Implement this
-        // Use startPosition and board to find all possible moves
         ChessPiece piece = board.getPiece(startPosition);
-        Collection<ChessMove> hypotheticalMoves = piece.pieceMoves(board, startPosition);
-        // For each of that piece's moves, check if the opponent is able to capture the king after
-        // If the opponent can't, add this move to the collection
-        // Return the collection of moves this piece can make
-        throw new RuntimeException("Not implemented");
+        if (piece == null) {
+            return null;
+        }
+        return allValidMoves(piece.getTeamColor()).from(startPosition);
+    }
+
+    /**
+     * Gets every valid move of a team in the current position, grouped by
+     * start square. The moves are generated once and kept until the position
+     * changes, so validMoves for each square, validating a move and the
+     * status after it all share one generation.
+     *
+     * @param teamColor the team to get valid moves for
+     * @return the team's valid moves, which never change once returned
+     */
+    public ValidMoves allValidMoves(TeamColor teamColor) {
+        long key = getZobristKey();
+        if (teamColor != legalMovesTeam || key != legalMovesKey) {
+            generated.clear();
+            MoveGenerator.generateLegalMoves(board, teamColor, castlingRights, enPassantFor(teamColor), generated);
+            legalMoves = new ValidMoves(generated);
+            legalMovesTeam = teamColor;
+            legalMovesKey = key;
+        }
+        return legalMoves;
     }
 
     /**
@@ -83,61 +231,320 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        // TODO: Implement this
-        chess.ChessPosition startPos = move.getStartPosition();
-        TeamColor movingTeam = board.getPiece(move.getStartPosition()).getTeamColor();
-        // Check if this move is inside of validMoves and if the right team is moving
-        if (validMoves(startPos).contains(move) && movingTeam == teamTurn) {
-            // If it is, do move
-        } else if (movingTeam != teamTurn) {
+        if (!move.getStartPosition().isOnBoard() || !move.getEndPosition().isOnBoard()) {
+            throw new InvalidMoveException("Move off the board");
+        }
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        if (piece == null) {
+            throw new InvalidMoveException("No piece at start position");
+        } else if (piece.getTeamColor() != teamTurn) {
             throw new InvalidMoveException("Wrong team moving");
-        } else if (!validMoves(startPos).contains(move)) {
+        }
+        int packed = allValidMoves(teamTurn).find(Move.encode(move));
+        if (packed == Move.NONE) {
             throw new InvalidMoveException("Illegal move");
         }
-        throw new RuntimeException("Not implemented");
+        makeMove(packed);
     }
 
     /**
-     * Determines if the team sees the given square(s)
+     * Applies a packed move to the board in place and pushes what is needed to
+     * take it back onto the undo stack. The move is not checked for legality.
      *
-     * @param teamColor which team is looking
-     * @param
-     * @return True if the specified team is in check
+     * @param move packed move (see {@link Move}) to apply
      */
-    private boolean canSeeSquare(TeamColor teamColor, Collection<ChessPosition> squares) {
-        // TODO
-        // Make a collection of every piece on the teamColor's side
-        ArrayList<ChessPosition> teamPositions = new ArrayList<>();
-        ChessPosition tempPos;
-        ChessPiece tempPiece;
-        for (int i = 1; i < 8; i++) {
-            for (int j = 1; j < 8; j++) {
-                tempPos = new ChessPosition(i, j);
-                tempPiece = board.getPiece(tempPos);
-                if (tempPiece.getTeamColor() == teamColor) {
-                    teamPositions.add(tempPos);
-                }
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = board.pieceAt(from);
+        TeamColor color = ChessPiece.fromIndex(piece).getTeamColor();
+
+        // Take off whatever is captured, which for en passant is beside the end square
+        int captureSquare = to;
+        if (Move.is(move, Move.EN_PASSANT)) {
+            captureSquare = (color == TeamColor.WHITE) ? to - 8 : to + 8;
+        }
+        int captured = board.pieceAt(captureSquare);
+        pushUndo(move, captured);
+        if (captured >= 0) {
+            board.clearSquare(captureSquare);
+        }
+
+        board.clearSquare(from);
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        board.putPiece(to, (promotion == null) ? piece : ChessBoard.pieceIndex(color, promotion));
+        if (Move.is(move, Move.CASTLE)) {
+            int rookFrom = (to > from) ? to + 1 : to - 2;
+            int rookTo = (to > from) ? to - 1 : to + 1;
+            int rook = board.pieceAt(rookFrom);
+            board.clearSquare(rookFrom);
+            board.putPiece(rookTo, rook);
+        }
+
+        castlingRights &= CASTLING_RIGHTS_KEPT[from] & CASTLING_RIGHTS_KEPT[to];
+        enPassantSquare = NO_EN_PASSANT;
+        if (Move.is(move, Move.DOUBLE_PUSH)) {
+            // Only remember the square if an enemy pawn is there to capture, so
+            // positions that differ in nothing else hash the same
+            int passed = (from + to) / 2;
+            if ((Attacks.pawnAttacks(color, passed) & board.pieces(opponent(color), ChessPiece.PieceType.PAWN)) != 0) {
+                enPassantSquare = passed;
             }
         }
-        // Use ChessPiece.pieceMoves() to find all squares the teamColor can move to
-        ArrayList<ChessPosition> possibleEndPositions = new ArrayList<>();
-        for (ChessPosition currPos : teamPositions) {
-            ChessPiece currPiece = board.getPiece(currPos);
-            Collection<ChessMove> currMoves = currPiece.pieceMoves(board, currPos);
-            for (ChessMove move : currMoves) {
-                ChessPosition endPos = move.endPosition;
-                possibleEndPositions.add(endPos);
+        if (captured >= 0 || piece == ChessBoard.pieceIndex(color, ChessPiece.PieceType.PAWN)) {
+            halfmoveClock = 0;
+        } else {
+            halfmoveClock++;
+        }
+        teamTurn = opponent(color);
+    }
+
+    /**
+     * Takes back the last move made with {@link #makeMove(int)}, restoring the
+     * board, turn, castling and en passant state exactly. The move stays in
+     * the history and can be made again with {@link #redoMove()}.
+     *
+     * @throws IllegalStateException if no move has been made
+     */
+    public void unmakeMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        undoSize--;
+        int move = undoMoves[undoSize];
+        int record = undoRecords[undoSize];
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = board.pieceAt(to);
+        TeamColor color = ChessPiece.fromIndex(piece).getTeamColor();
+
+        board.clearSquare(to);
+        if (Move.promotion(move) != null) {
+            piece = ChessBoard.pieceIndex(color, ChessPiece.PieceType.PAWN);
+        }
+        board.putPiece(from, piece);
+        if (Move.is(move, Move.CASTLE)) {
+            int rookFrom = (to > from) ? to + 1 : to - 2;
+            int rookTo = (to > from) ? to - 1 : to + 1;
+            int rook = board.pieceAt(rookTo);
+            board.clearSquare(rookTo);
+            board.putPiece(rookFrom, rook);
+        }
+        int captured = (record & 0xF) - 1;
+        if (captured >= 0) {
+            int captureSquare = to;
+            if (Move.is(move, Move.EN_PASSANT)) {
+                captureSquare = (color == TeamColor.WHITE) ? to - 8 : to + 8;
             }
+            board.putPiece(captureSquare, captured);
+        }
+
+        castlingRights = record >>> UNDO_CASTLING_SHIFT & 0xF;
+        enPassantSquare = record >>> UNDO_EN_PASSANT_SHIFT & 0x7F;
+        halfmoveClock = record >>> UNDO_CLOCK_SHIFT;
+        teamTurn = color;
+    }
+
+    /**
+     * Makes the next move of the history again after it was taken back
+     *
+     * @throws IllegalStateException if there is no taken back move to make
+     */
+    public void redoMove() {
+        if (undoSize == historySize) {
+            throw new IllegalStateException("No move to redo");
+        }
+        makeMove(undoMoves[undoSize]);
+    }
+
+    /**
+     * Moves through the history to the position after the given number of
+     * moves, undoing or redoing moves as needed. Long jumps start from the
+     * nearest stored checkpoint at or before the target, so they cost at
+     * most a board copy and a few moves.
+     *
+     * @param ply how many moves from the start of the game, from 0 to
+     *            {@link #getHistorySize()}
+     * @throws IllegalArgumentException if the history has no such ply
+     */
+    public void seek(int ply) {
+        if (ply < 0 || ply > historySize) {
+            throw new IllegalArgumentException("No ply " + ply + " in a history of " + historySize);
+        }
+        int checkpoint = Math.min(ply / CHECKPOINT_INTERVAL, checkpointCount - 1);
+        int checkpointPly = checkpoint * CHECKPOINT_INTERVAL;
+        if (checkpoint >= 0 && Math.abs(ply - undoSize) > ply - checkpointPly) {
+            int state = checkpointStates[checkpoint];
+            board.copyFrom(checkpointBoards[checkpoint]);
+            castlingRights = state & 0xF;
+            enPassantSquare = state >>> CHECKPOINT_EN_PASSANT_SHIFT & 0x7F;
+            teamTurn = TeamColor.values()[state >>> CHECKPOINT_TURN_SHIFT & 1];
+            halfmoveClock = state >>> CHECKPOINT_CLOCK_SHIFT;
+            undoSize = checkpointPly;
+        }
+        while (undoSize > ply) {
+            unmakeMove();
+        }
+        while (undoSize < ply) {
+            redoMove();
         }
-        // If all squares are hit at least once return true. Else return false
-        for (ChessPosition target : squares) {
-            if (!possibleEndPositions.contains(target)) {
-                return false;
+    }
+
+    /**
+     * @return how many moves have been made from the start of the game to
+     * the current position
+     */
+    public int getPly() {
+        return undoSize;
+    }
+
+    /**
+     * @return how many moves the history holds, counting moves taken back
+     * that can still be redone
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * @param ply how many moves from the start of the game the move was made
+     * @return the move made from that ply, e.g. 0 for the first move
+     * @throws IndexOutOfBoundsException if the history has no such move
+     */
+    public ChessMove getHistoryMove(int ply) {
+        if (ply < 0 || ply >= historySize) {
+            throw new IndexOutOfBoundsException(ply);
+        }
+        return Move.toChessMove(undoMoves[ply]);
+    }
+
+    private void pushUndo(int move, int captured) {
+        if (undoSize < historySize && undoMoves[undoSize] != move) {
+            // A different move from here replaces the rest of the history
+            historySize = undoSize;
+            checkpointCount = Math.min(checkpointCount, undoSize / CHECKPOINT_INTERVAL + 1);
+        }
+        if (undoSize % CHECKPOINT_INTERVAL == 0 && undoSize / CHECKPOINT_INTERVAL == checkpointCount) {
+            pushCheckpoint();
+        }
+        if (undoSize == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, undoSize * 2);
+            undoRecords = Arrays.copyOf(undoRecords, undoSize * 2);
+            undoKeys = Arrays.copyOf(undoKeys, undoSize * 2);
+        }
+        int record = captured + 1 | castlingRights << UNDO_CASTLING_SHIFT
+                | enPassantSquare << UNDO_EN_PASSANT_SHIFT | halfmoveClock << UNDO_CLOCK_SHIFT;
+        undoKeys[undoSize] = getZobristKey();
+        undoMoves[undoSize] = move;
+        undoRecords[undoSize] = record;
+        undoSize++;
+        historySize = Math.max(historySize, undoSize);
+    }
+
+    private void pushCheckpoint() {
+        if (checkpointCount == checkpointBoards.length) {
+            checkpointBoards = Arrays.copyOf(checkpointBoards, checkpointCount * 2);
+            checkpointStates = Arrays.copyOf(checkpointStates, checkpointCount * 2);
+        }
+        int state = castlingRights | enPassantSquare << CHECKPOINT_EN_PASSANT_SHIFT
+                | teamTurn.ordinal() << CHECKPOINT_TURN_SHIFT | halfmoveClock << CHECKPOINT_CLOCK_SHIFT;
+        checkpointBoards[checkpointCount] = new ChessBoard(board);
+        checkpointStates[checkpointCount] = state;
+        checkpointCount++;
+    }
+
+    /**
+     * Sets which castling moves are still allowed
+     *
+     * @param rights 4-bit mask, see {@link #CASTLE_KINGSIDE}
+     */
+    void setCastlingRights(int rights) {
+        this.castlingRights = rights;
+    }
+
+    /**
+     * Sets how many plies have passed since the last capture or pawn move
+     */
+    void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * @return how many moves in a row, counting both sides, have been made
+     * without a capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Determines whether the current position has come up at least twice
+     * before with the same side to move, castling rights and en passant.
+     * Positions are compared by Zobrist key, and only as far back as the
+     * last capture or pawn move, since no position before one can repeat.
+     *
+     * @return True if this is at least the third time the position occurs
+     */
+    public boolean isThreefoldRepetition() {
+        long key = getZobristKey();
+        int oldest = Math.max(0, undoSize - halfmoveClock);
+        int repeats = 0;
+        // Only positions with the same side to move can match
+        for (int ply = undoSize - 2; ply >= oldest; ply -= 2) {
+            if (undoKeys[ply] == key && ++repeats == 2) {
+                return true;
             }
         }
-        return true;
+        return false;
     }
 
+    /**
+     * Sets the square the side to move could capture en passant onto
+     *
+     * @param square the square passed over by the pawn that just moved two
+     *               squares, or {@link #NO_EN_PASSANT}
+     */
+    void setEnPassantSquare(int square) {
+        this.enPassantSquare = square;
+    }
+
+    /**
+     * @return the en passant square if the team is the one to move, since
+     * only the very next move can capture en passant
+     */
+    private int enPassantFor(TeamColor team) {
+        return (team == teamTurn) ? enPassantSquare : NO_EN_PASSANT;
+    }
+
+    /**
+     * Adds every legal move of the side to move to a move list, without the
+     * caching of {@link #allValidMoves}, for searches that make and take
+     * back moves in place
+     */
+    void generateLegalMoves(MoveList moves) {
+        MoveGenerator.generateLegalMoves(board, teamTurn, castlingRights, enPassantSquare, moves);
+    }
+
+    /**
+     * Gets the Zobrist key of the whole game state: the board's piece key
+     * combined with the side to move, castling rights and en passant file.
+     * The board key is kept up to date on every move and the rest is a few
+     * XORs, so this is constant time.
+     *
+     * @return the 64-bit key of the current position
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey() ^ Zobrist.castling(castlingRights);
+        if (teamTurn == TeamColor.BLACK) {
+            key ^= Zobrist.blackToMove();
+        }
+        if (enPassantSquare != NO_EN_PASSANT) {
+            key ^= Zobrist.enPassantFile(enPassantSquare % 8);
+        }
+        return key;
+    }
+
+
     /**
      * Determines if the given team is in check
      *
@@ -145,13 +552,12 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        // TODO
-        // Find the king
-        ChessPiece king = new ChessPiece(teamColor, ChessPiece.PieceType.KING);
-        Collection<ChessPosition> kingPos = board.getPosition(king);
-        // Use canSeeSquare on the king's location
-        TeamColor enemyTeamColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        return canSeeSquare(enemyTeamColor, kingPos);
+        // Find the king, then look outward from it for an attacker
+        int kingSquare = board.kingSquare(teamColor);
+        if (kingSquare == 64) {
+            return false;
+        }
+        return board.isSquareAttacked(kingSquare, opponent(teamColor), board.occupancy());
     }
 
     /**
@@ -161,27 +567,8 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        // TODO
-        // Find if the king is in check right now
-        if (!isInCheck(teamColor)) {
-            return false;
-        }
-        // Find every possible move for teamColor
-        Collection<ChessPosition> teamPieces = new HashSet<>();
-        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
-            ChessPiece currPiece = new ChessPiece(teamColor, type);
-            teamPieces.addAll(board.getPosition(currPiece));
-        }
-        Collection<ChessMove> allValidMoves = new HashSet<>();
-        for (ChessPosition currPos : teamPieces) {
-            allValidMoves.addAll(validMoves(currPos));
-        }
-        // No valid moves at this point means checkmate
-        if (allValidMoves.isEmpty()) {
-            return true;
-        } else {
-            return false;
-        }
+        // In check with no valid moves at all means checkmate
+        return isInCheck(teamColor) && !hasLegalMove(teamColor);
     }
 
     /**
@@ -192,41 +579,47 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        // TODO
-        // Find that the king isn't in check right now
-        if (isInCheck(teamColor)) {
-            return false;
-        }
-        // Find every possible move for teamColor
-        Collection<ChessPosition> teamPieces = new HashSet<>();
-        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
-            ChessPiece currPiece = new ChessPiece(teamColor, type);
-            teamPieces.addAll(board.getPosition(currPiece));
-        }
-        Collection<ChessMove> allValidMoves = new HashSet<>();
-        for (ChessPosition currPos : teamPieces) {
-            allValidMoves.addAll(validMoves(currPos));
-        }
-        // No valid moves at this point means stalemate
-        if (allValidMoves.isEmpty()) {
-            return true;
-        } else {
-            return false;
-        }
-
+        // Not in check with no valid moves at all means stalemate
+        return !isInCheck(teamColor) && !hasLegalMove(teamColor);
+    }
 
+    /**
+     * Determines whether the given team is in check, checkmate or stalemate,
+     * or the game is drawn by insufficient material, repetition or the
+     * fifty-move rule, with one check test and one search for a legal move,
+     * which is cheaper than asking isInCheck, isInCheckmate and isInStalemate
+     * in turn. Checkmate on the fiftieth move still wins.
+     *
+     * @param teamColor which team to get the status of
+     * @return the team's status in the current position
+     */
+    public GameStatus getGameStatus(TeamColor teamColor) {
+        boolean inCheck = isInCheck(teamColor);
+        if (!hasLegalMove(teamColor)) {
+            return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        } else if (board.hasInsufficientMaterial()) {
+            return GameStatus.DRAW_BY_INSUFFICIENT_MATERIAL;
+        } else if (halfmoveClock >= FIFTY_MOVE_PLIES) {
+            return GameStatus.DRAW_BY_FIFTY_MOVE_RULE;
+        } else if (isThreefoldRepetition()) {
+            return GameStatus.DRAW_BY_REPETITION;
+        }
+        return inCheck ? GameStatus.CHECK : GameStatus.ONGOING;
+    }
 
-        // Find the king's possible moves
-        ChessPiece king = new ChessPiece(teamColor, ChessPiece.PieceType.KING);
-        Collection<ChessPosition> kingPos = board.getPosition(king);
-        Collection<ChessMove> kingMoves = king.pieceMoves(board, kingPos);
-        Collection<ChessPosition> kingEndPositions = new HashSet<>();
-        for (ChessMove move : kingMoves) {
-            kingEndPositions.add(move.getEndPosition());
+    /**
+     * Determines whether the given team has any valid move at all. This stops
+     * at the first move found instead of collecting every one, unless the
+     * team's moves in this position have already been collected.
+     *
+     * @param teamColor which team to look for a move for
+     * @return True if the team has at least one valid move
+     */
+    public boolean hasLegalMove(TeamColor teamColor) {
+        if (teamColor == legalMovesTeam && getZobristKey() == legalMovesKey) {
+            return !legalMoves.isEmpty();
         }
-        // Use canSeeSquare on the king's possible moves
-        TeamColor enemyTeamColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        return canSeeSquare(enemyTeamColor, kingPos);
+        return MoveGenerator.hasLegalMove(board, teamColor, enPassantFor(teamColor));
     }
 
     /**
@@ -236,6 +629,48 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        // Moves made on the old board can no longer be taken back
+        this.undoSize = 0;
+        this.historySize = 0;
+        this.checkpointCount = 0;
+        this.halfmoveClock = 0;
+        // Nothing is known about earlier moves, so assume any king and rook
+        // still on their starting squares have not moved
+        this.castlingRights = 0;
+        for (TeamColor color : TeamColor.values()) {
+            int homeRow = (color == TeamColor.WHITE) ? 0 : 56;
+            int shift = 2 * color.ordinal();
+            if (board.pieceAt(homeRow + 4) == ChessBoard.pieceIndex(color, ChessPiece.PieceType.KING)) {
+                int rook = ChessBoard.pieceIndex(color, ChessPiece.PieceType.ROOK);
+                if (board.pieceAt(homeRow + 7) == rook) {
+                    this.castlingRights |= CASTLE_KINGSIDE << shift;
+                }
+                if (board.pieceAt(homeRow) == rook) {
+                    this.castlingRights |= CASTLE_QUEENSIDE << shift;
+                }
+            }
+        }
+        this.enPassantSquare = NO_EN_PASSANT;
+    }
+
+    /**
+     * Gets an immutable copy of the current position. The same snapshot is
+     * returned until the position changes, so any number of observers can
+     * share it.
+     * <p>
+     * Like every other method of this class, this may only be called by the
+     * thread that owns the game, e.g. the one making its moves; it reads the
+     * live board and caches without locking. The returned snapshot is what
+     * is safe to hand to other threads.
+     *
+     * @return the snapshot of the current position
+     */
+    public BoardSnapshot getSnapshot() {
+        long key = getZobristKey();
+        if (snapshot == null || snapshot.getZobristKey() != key) {
+            snapshot = new BoardSnapshot(board, teamTurn, key);
+        }
+        return snapshot;
     }
 
     /**
@@ -246,4 +681,20 @@ public class ChessGame {
     public ChessBoard getBoard() {
         return this.board;
     }
+
+    @Override
+    public boolean equals(Object object) {
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        ChessGame that = (ChessGame) object;
+        return teamTurn == that.teamTurn && castlingRights == that.castlingRights
+                && enPassantSquare == that.enPassantSquare && Objects.equals(board, that.board);
+    }
+
+    @Override
+    public int hashCode() {
+        long key = getZobristKey();
+        return (int) (key ^ (key >>> 32));
+    }
 }
@@ -1,11 +1,6 @@
 package chess;
 
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
-
-import static java.lang.Math.abs;
 
 /**
  * Represents a single chess piece
@@ -15,6 +10,21 @@ import static java.lang.Math.abs;
  */
 public class ChessPiece {
 
+    private static final PieceType[] PROMOTION_TYPES = {
+            PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT
+    };
+
+    // The twelve shared pieces, indexed by color ordinal * 6 + type ordinal
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -23,6 +33,25 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a color and type. Pieces are immutable, so
+     * the board hands these out instead of allocating new ones.
+     *
+     * @param pieceColor which team the piece belongs to
+     * @param type       which type of piece it is
+     * @return the shared piece
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
+    /**
+     * @return the shared piece for a ChessBoard bitboard index
+     */
+    static ChessPiece fromIndex(int index) {
+        return PIECES[index];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -49,194 +78,107 @@ public class ChessPiece {
         return type;
     }
 
-    private Set<ChessMove> adjacentMoves(ChessBoard board, ChessPosition myPosition) {
-        Set<ChessMove> possibleMoves = new HashSet<>();
-        int row = myPosition.getRow();
-        int col = myPosition.getColumn();
-        // Check all 8 adjacent squares
-        for (int i = -1; i <= 1; i++) {
-            for (int j = -1; j <= 1; j++) {
-                // Make sure we are still on the chessboard
-                if (row + i >= 1 && row + i <= 8 && col + j >= 1 && col + j <= 8 && (i != 0 || j != 0)) {
-                    ChessPosition newPosition = new ChessPosition(row + i, col + j);
-                    ChessMove newMove = new ChessMove(myPosition, newPosition, null);
-                    if (board.getPiece(newPosition) == null) {
-                        possibleMoves.add(newMove);
-                    } else if (board.getPiece(newPosition).pieceColor != board.getPiece(myPosition).pieceColor) {
-                        possibleMoves.add(newMove);
-                    }
-                }
-            }
+    /**
+     * Gets the squares a piece attacks, which for every piece but a pawn is
+     * also where it can move. Sliding pieces stop at (and include) the first
+     * occupied square in each direction.
+     *
+     * @param type     the type of the attacking piece
+     * @param color    the team of the attacking piece
+     * @param square   the square index the piece stands on
+     * @param occupied bitboard of every occupied square
+     * @return bitboard of the attacked squares
+     */
+    static long attacks(PieceType type, ChessGame.TeamColor color, int square, long occupied) {
+        if (type == PieceType.KING) {
+            return Attacks.kingAttacks(square);
+        } else if (type == PieceType.QUEEN) {
+            return Attacks.queenAttacks(square, occupied);
+        } else if (type == PieceType.ROOK) {
+            return Attacks.rookAttacks(square, occupied);
+        } else if (type == PieceType.BISHOP) {
+            return Attacks.bishopAttacks(square, occupied);
+        } else if (type == PieceType.KNIGHT) {
+            return Attacks.knightAttacks(square);
+        } else if (type == PieceType.PAWN) {
+            return Attacks.pawnAttacks(color, square);
+        } else {
+            throw new RuntimeException("Unknown piece type");
         }
-
-        return possibleMoves;
     }
 
-    private Set<ChessMove> straightLine(ChessBoard board, ChessPosition myPosition, int[] direction) {
-        Set<ChessMove> possibleMoves = new HashSet<>();
-        int row = myPosition.getRow();
-        int col = myPosition.getColumn();
-
-        // Straight lines never go longer than the starting square plus 7 moves
-        for (int i = 1; i < 8; i++) {
-            int newRow = row + direction[0] * i;
-            int newCol = col + direction[1] * i;
-            // Check we are still in the board
-            if (newRow >= 1
-                    && newRow <= 8
-                    && newCol >= 1
-                    && newCol <= 8) {
-                ChessPosition newPosition = new ChessPosition(newRow, newCol);
-                ChessMove newMove = new ChessMove(myPosition, newPosition, null);
-                if (board.getPiece(newPosition) == null) {
-                    // Can move through empty squares
-                    possibleMoves.add(newMove);
-                } else if (board.getPiece(newPosition).getTeamColor() != board.getPiece(myPosition).getTeamColor()) {
-                    // Can move to but not past an enemy piece
-                    possibleMoves.add(newMove);
-                    break;
-                } else if (board.getPiece(newPosition).getTeamColor() == board.getPiece(myPosition).getTeamColor()) {
-                    break;
-                } else {
-                    throw new RuntimeException("Shouldn't be possible to have piece that isn't the same or different type as own.");
-                }
+    /**
+     * Gets the squares a pawn can move to: one forward, two forward from its
+     * home row if both squares are open, and diagonally forward onto enemies.
+     */
+    static long pawnTargets(ChessGame.TeamColor color, int square, long occupied, long enemies) {
+        long empty = ~occupied;
+        long forward;
+        if (color == ChessGame.TeamColor.WHITE) {
+            forward = (1L << square) << 8 & empty;
+            if (square / 8 == 1) {
+                forward |= forward << 8 & empty;
+            }
+        } else {
+            forward = (1L << square) >>> 8 & empty;
+            if (square / 8 == 6) {
+                forward |= forward >>> 8 & empty;
             }
         }
-
-        return possibleMoves;
+        return forward | (Attacks.pawnAttacks(color, square) & enemies);
     }
 
-    private Set<ChessMove> flatMoves(ChessBoard board, ChessPosition myPosition) {
-        Set<ChessMove> possibleMoves = new HashSet<>();
-        int[] up    = { 1,  0};
-        int[] down  = {-1,  0};
-        int[] left  = { 0, -1};
-        int[] right = { 0,  1};
-
-        possibleMoves.addAll(straightLine(board, myPosition, up));
-        possibleMoves.addAll(straightLine(board, myPosition, down));
-        possibleMoves.addAll(straightLine(board, myPosition, left));
-        possibleMoves.addAll(straightLine(board, myPosition, right));
-
-        return possibleMoves;
-    }
-
-    private Set<ChessMove> diagMoves(ChessBoard board, ChessPosition myPosition) {
-        Set<ChessMove> possibleMoves = new HashSet<>();
-        int[] up_left    = { 1, -1};
-        int[] down_left  = {-1, -1};
-        int[] up_right   = { 1,  1};
-        int[] down_right = {-1,  1};
-
-        possibleMoves.addAll(straightLine(board, myPosition, up_left));
-        possibleMoves.addAll(straightLine(board, myPosition, down_left));
-        possibleMoves.addAll(straightLine(board, myPosition, up_right));
-        possibleMoves.addAll(straightLine(board, myPosition, down_right));
-
-        return possibleMoves;
+    /**
+     * Adds a packed move from a square to every square set in a bitboard
+     */
+    static void addMoves(MoveList moves, int from, long targets, long enemies) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            moves.add(Move.encode(from, to, null, (enemies >>> to & 1) != 0 ? Move.CAPTURE : 0));
+            targets &= targets - 1;
+        }
     }
 
-    private Set<ChessMove> lShapeMoves(ChessBoard board, ChessPosition myPosition) {
-        Set<ChessMove> possibleMoves = new HashSet<>();
-        int row = myPosition.getRow();
-        int col = myPosition.getColumn();
-        int[] knightDistances = new int[4];
-        knightDistances[0] = 1;
-        knightDistances[1] = 2;
-        knightDistances[2] = -1;
-        knightDistances[3] = -2;
-        // Check all 8 adjacent squares
-        for (int i : knightDistances) {
-            for (int j : knightDistances) {
-                // Make sure we are still on the chessboard
-                if (row + i >= 1 && row + i <= 8 && col + j >= 1 && col + j <= 8 && (abs(i) != abs(j))) {
-                    ChessPosition newPosition = new ChessPosition(row + i, col + j);
-                    ChessMove newMove = new ChessMove(myPosition, newPosition, null);
-                    if (board.getPiece(newPosition) == null) {
-                        possibleMoves.add(newMove);
-                    } else if (board.getPiece(newPosition).pieceColor != board.getPiece(myPosition).pieceColor) {
-                        possibleMoves.add(newMove);
-                    }
+    /**
+     * Adds packed pawn moves from a square to every square set in a bitboard,
+     * expanding moves onto the last row into each promotion choice
+     */
+    static void addPawnMoves(MoveList moves, int from, long targets, long enemies) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int flags = (enemies >>> to & 1) != 0 ? Move.CAPTURE : 0;
+            if (to - from == 16 || from - to == 16) {
+                flags |= Move.DOUBLE_PUSH;
+            }
+            if (to < 8 || to >= 56) {
+                for (PieceType promotion : PROMOTION_TYPES) {
+                    moves.add(Move.encode(from, to, promotion, flags));
                 }
+            } else {
+                moves.add(Move.encode(from, to, null, flags));
             }
+            targets &= targets - 1;
         }
-
-        return possibleMoves;
     }
 
-    private Set<ChessMove> pawnMoves(ChessBoard board, ChessPosition myPosition) {
-        Set<ChessMove> possibleMoves = new HashSet<>();
-        ChessPosition newPosition;
-        int row = myPosition.getRow();
-        int col = myPosition.getColumn();
-        boolean isOnHomeRow = (row == 2 && board.getPiece(myPosition).getTeamColor() == ChessGame.TeamColor.WHITE) ||
-                (row == 7 && board.getPiece(myPosition).getTeamColor() == ChessGame.TeamColor.BLACK);
-        boolean isReadyToPromote = (row == 7 && board.getPiece(myPosition).getTeamColor() == ChessGame.TeamColor.WHITE) ||
-                (row == 2 && board.getPiece(myPosition).getTeamColor() == ChessGame.TeamColor.BLACK);
-        Set<PieceType> promoteTo = new HashSet<>();
-        if (isReadyToPromote) {
-            promoteTo.add(PieceType.QUEEN);
-            promoteTo.add(PieceType.ROOK);
-            promoteTo.add(PieceType.BISHOP);
-            promoteTo.add(PieceType.KNIGHT);
-        } else {
-            promoteTo.add(null);
-        }
-        int direction;
-        if (board.getPiece(myPosition).getTeamColor() == ChessGame.TeamColor.WHITE) {
-            direction = 1;
+    /**
+     * Adds every packed move this piece can make from a square to a move list.
+     * Does not take into account moves that are illegal due to leaving the king in
+     * danger.
+     *
+     * @param board  the board the piece is on
+     * @param square the square index the piece stands on
+     * @param moves  the list to add moves to
+     */
+    public void pieceMoves(ChessBoard board, int square, MoveList moves) {
+        long own = board.occupancy(pieceColor);
+        long enemies = board.occupancy(ChessGame.opponent(pieceColor));
+        if (type == PieceType.PAWN) {
+            addPawnMoves(moves, square, pawnTargets(pieceColor, square, own | enemies, enemies), enemies);
         } else {
-            direction = -1;
-        }
-        boolean isOnLeft = col <= 1;
-        boolean isOnRight = col >= 8;
-
-        // Check if we can move forward one
-        if (row + direction  >= 1 && row + direction <= 8) {
-            newPosition = new ChessPosition(row + direction, col);
-            if (board.getPiece(newPosition) == null) {
-                for (PieceType promotion : promoteTo) {
-                    ChessMove newMove = new ChessMove(myPosition, newPosition, promotion);
-                    possibleMoves.add(newMove);
-                }
-                // Since the first square is open, check if we can move 2 spaces as well
-                if (isOnHomeRow) {
-                    newPosition = new ChessPosition(row + 2 * direction, col);
-                    if (board.getPiece(newPosition) == null) {
-                        for (PieceType promotion : promoteTo) {
-                            ChessMove newMove = new ChessMove(myPosition, newPosition, promotion);
-                            possibleMoves.add(newMove);
-                        }
-                    }
-                }
-            }
+            // Can move to but not past an enemy piece, and never onto our own
+            addMoves(moves, square, attacks(type, pieceColor, square, own | enemies) & ~own, enemies);
         }
-        // Check if we can capture to the left
-        if (!isOnLeft && row + direction  >= 1 && row + direction <= 8) {
-            newPosition = new ChessPosition(row + direction, col - 1);
-            if (board.getPiece(newPosition) != null) {
-                if (board.getPiece((newPosition)).getTeamColor() != board.getPiece(myPosition).getTeamColor()) {
-                    for (PieceType promotion : promoteTo) {
-                        ChessMove newMove = new ChessMove(myPosition, newPosition, promotion);
-                        possibleMoves.add(newMove);
-                    }
-                }
-            }
-        }
-        // Check if we can capture to the right
-        if (!isOnRight && row + direction  >= 1 && row + direction <= 8) {
-            newPosition = new ChessPosition(row + direction, col + 1);
-            if (board.getPiece(newPosition) != null) {
-                if (board.getPiece((newPosition)).getTeamColor() != board.getPiece(myPosition).getTeamColor()) {
-                    for (PieceType promotion : promoteTo) {
-                        ChessMove newMove = new ChessMove(myPosition, newPosition, promotion);
-                        possibleMoves.add(newMove);
-                    }
-                }
-            }
-        }
-
-        return possibleMoves;
     }
 
     /**
@@ -248,43 +190,24 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, Collection<ChessPosition> myPositions) {
-        Collection<ChessMove> possibleMoves = new HashSet<>();
+        MoveList moves = new MoveList();
         for (ChessPosition currPos : myPositions) {
-            possibleMoves.addAll(pieceMoves(board, currPos));
+            pieceMoves(board, currPos.getIndex(), moves);
         }
-        return possibleMoves;
+        return moves.toChessMoves();
     }
 
-        /**
-         * Calculates all the positions a chess piece can move to.
-         * Does not take into account moves that are illegal due to leaving the king in
-         * danger.
-         *
-         * @return Collection of valid moves
-         */
+    /**
+     * Calculates all the positions a chess piece can move to.
+     * Does not take into account moves that are illegal due to leaving the king in
+     * danger.
+     *
+     * @return Collection of valid moves
+     */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> possibleMoves = new HashSet<>();
-
-        ChessPiece myPiece = board.getPiece(myPosition);
-        PieceType myType = myPiece.getPieceType();
-        // Run everything needed to find each piece's legal moves
-        if (myType == PieceType.KING) {
-            possibleMoves.addAll(adjacentMoves(board, myPosition));
-        } else if (myType == PieceType.QUEEN) {
-            possibleMoves.addAll(flatMoves(board, myPosition));
-            possibleMoves.addAll(diagMoves(board, myPosition));
-        } else if (myType == PieceType.ROOK) {
-            possibleMoves.addAll(flatMoves(board, myPosition));
-        } else if (myType == PieceType.BISHOP) {
-            possibleMoves.addAll(diagMoves(board, myPosition));
-        } else if (myType == PieceType.KNIGHT) {
-            possibleMoves.addAll(lShapeMoves(board, myPosition));
-        } else if (myType == PieceType.PAWN) {
-            possibleMoves.addAll(pawnMoves(board, myPosition));
-        } else {
-            throw new RuntimeException("Unknown piece type");
-        }
-        return possibleMoves;
+        MoveList moves = new MoveList();
+        pieceMoves(board, myPosition.getIndex(), moves);
+        return moves.toChessMoves();
     }
 
     @Override
@@ -298,7 +221,7 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        return pieceColor.ordinal() * 6 + type.ordinal();
     }
 
     @Override
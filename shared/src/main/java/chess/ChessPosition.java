@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -9,14 +7,46 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPosition {
-    int row;
-    int col;
+    // One shared instance per square, indexed by getIndex()
+    private static final ChessPosition[] POSITIONS = new ChessPosition[64];
+
+    static {
+        for (int index = 0; index < 64; index++) {
+            POSITIONS[index] = new ChessPosition(index / 8 + 1, index % 8 + 1);
+        }
+    }
+
+    final int row;
+    final int col;
 
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * Gets the shared position for a square without allocating. Positions off
+     * the board are not cached and get a fresh instance.
+     *
+     * @param row the row, 1 through 8
+     * @param col the column, 1 through 8
+     * @return the position at row and col
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+            return POSITIONS[(row - 1) * 8 + (col - 1)];
+        }
+        return new ChessPosition(row, col);
+    }
+
+    /**
+     * @param index square index, 0 (a1) through 63 (h8)
+     * @return the shared position for that square
+     */
+    public static ChessPosition fromIndex(int index) {
+        return POSITIONS[index];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -33,6 +63,25 @@ public class ChessPosition {
         return this.col;
     }
 
+    /**
+     * @return true if the row and column are both 1 through 8
+     */
+    public boolean isOnBoard() {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    /**
+     * @return the square index of this position, 0 for row 1 column 1 up to
+     * 63 for row 8 column 8
+     * @throws IndexOutOfBoundsException if the position is off the board
+     */
+    public int getIndex() {
+        if (!isOnBoard()) {
+            throw new IndexOutOfBoundsException("Position off the board: " + this);
+        }
+        return (row - 1) * 8 + (col - 1);
+    }
+
     @Override
     public boolean equals(Object object) {
         if (object == null || getClass() != object.getClass()) {
@@ -44,7 +93,7 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * row + col;
     }
 
     @Override
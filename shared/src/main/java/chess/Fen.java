@@ -0,0 +1,114 @@
+package chess;
+
+/**
+ * Reads positions written in Forsyth-Edwards Notation, the standard one-line
+ * text form of a chess position, e.g. the starting position is
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ * <p>
+ * The move counters are optional. Only the halfmove clock is used; the
+ * fullmove number is ignored. An en passant square is kept only if the side
+ * to move can actually capture onto it, as {@link ChessGame#makeMove(int)}
+ * does, so a position has the same Zobrist key however it was reached.
+ */
+public final class Fen {
+
+    /** The standard starting position */
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_LETTERS = "KQBNRPkqbnrp";
+
+    private Fen() {
+    }
+
+    /**
+     * Builds a game from a FEN string
+     *
+     * @param fen the position to load
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the text is not a valid FEN position
+     */
+    public static ChessGame parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("FEN needs at least placement and side to move: " + fen);
+        }
+
+        ChessBoard board = new ChessBoard();
+        int row = 7;
+        int col = 0;
+        for (char c : fields[0].toCharArray()) {
+            if (c == '/') {
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                int piece = PIECE_LETTERS.indexOf(c);
+                if (piece < 0 || row < 0 || col > 7) {
+                    throw new IllegalArgumentException("Bad piece placement in FEN: " + fen);
+                }
+                board.putPiece(row * 8 + col, piece);
+                col++;
+            }
+        }
+
+        ChessGame.TeamColor turn;
+        if (fields[1].equals("w")) {
+            turn = ChessGame.TeamColor.WHITE;
+        } else if (fields[1].equals("b")) {
+            turn = ChessGame.TeamColor.BLACK;
+        } else {
+            throw new IllegalArgumentException("Bad side to move in FEN: " + fen);
+        }
+
+        ChessGame game = new ChessGame(turn);
+        game.setBoard(board);
+        String castling = fields.length > 2 ? fields[2] : "-";
+        int rights = 0;
+        for (char c : castling.toCharArray()) {
+            // Same bit order as ChessGame's castling rights
+            int right = "KQkq".indexOf(c);
+            if (right >= 0) {
+                rights |= 1 << right;
+            } else if (c != '-') {
+                throw new IllegalArgumentException("Bad castling rights in FEN: " + fen);
+            }
+        }
+        game.setCastlingRights(rights);
+        String enPassant = fields.length > 3 ? fields[3] : "-";
+        if (enPassant.equals("-")) {
+            game.setEnPassantSquare(ChessGame.NO_EN_PASSANT);
+        } else if (enPassant.length() == 2 && enPassant.charAt(0) >= 'a' && enPassant.charAt(0) <= 'h'
+                && (enPassant.charAt(1) == '3' || enPassant.charAt(1) == '6')) {
+            int square = (enPassant.charAt(1) - '1') * 8 + (enPassant.charAt(0) - 'a');
+            game.setEnPassantSquare(isCapturable(game.getBoard(), turn, square) ? square : ChessGame.NO_EN_PASSANT);
+        } else {
+            throw new IllegalArgumentException("Bad en passant square in FEN: " + fen);
+        }
+        if (fields.length > 4) {
+            try {
+                game.setHalfmoveClock(Integer.parseInt(fields[4]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad halfmove clock in FEN: " + fen, e);
+            }
+        }
+        return game;
+    }
+
+    /**
+     * @return true if the square is one a pawn of the side that just moved
+     * passed over with a double push, and a pawn of the side to move attacks it
+     */
+    private static boolean isCapturable(ChessBoard board, ChessGame.TeamColor turn, int square) {
+        ChessGame.TeamColor moved = (turn == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        int forward = (turn == ChessGame.TeamColor.WHITE) ? 8 : -8;
+        int passedRank = (turn == ChessGame.TeamColor.WHITE) ? 5 : 2;
+        if (square / 8 != passedRank
+                || board.pieceAt(square - forward) != ChessBoard.pieceIndex(moved, ChessPiece.PieceType.PAWN)
+                || board.pieceAt(square) >= 0 || board.pieceAt(square + forward) >= 0) {
+            return false;
+        }
+        return (Attacks.pawnAttacks(moved, square) & board.pieces(turn, ChessPiece.PieceType.PAWN)) != 0;
+    }
+}
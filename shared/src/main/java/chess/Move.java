@@ -0,0 +1,119 @@
+package chess;
+
+/**
+ * Packs a chess move into a single int so move generation can work without
+ * allocating {@link ChessMove} objects.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square, both as
+ * {@link ChessPosition#getIndex()} values. Bits 12-14 hold the promotion piece
+ * (0 for none, otherwise its {@link ChessPiece.PieceType} ordinal plus one),
+ * and the bits above that are flags describing the kind of move.
+ */
+public final class Move {
+
+    /** A piece is taken on the end square */
+    public static final int CAPTURE = 1 << 15;
+    /** A pawn moves two squares forward from its home row */
+    public static final int DOUBLE_PUSH = 1 << 16;
+    /** A pawn captures another pawn that just made a double push */
+    public static final int EN_PASSANT = 1 << 17;
+    /** A king castles; the end square is where the king lands */
+    public static final int CASTLE = 1 << 18;
+
+    /** Value that never encodes a real move */
+    public static final int NONE = 0;
+
+    // The bits that identify a move to a caller: squares and promotion, no flags
+    private static final int KEY_MASK = (1 << 15) - 1;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    /**
+     * @param from      start square index
+     * @param to        end square index
+     * @param promotion piece to promote to, or null
+     * @param flags     any of the flag constants combined with |
+     * @return the packed move
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | to << 6 | promotionBits << 12 | flags;
+    }
+
+    /**
+     * Packs a ChessMove. The result carries no flags, so compare it against
+     * generated moves with {@link #key(int)}.
+     *
+     * @param move the move to pack
+     * @return the packed move without flags
+     */
+    public static int encode(ChessMove move) {
+        return encode(move.getStartPosition().getIndex(), move.getEndPosition().getIndex(),
+                move.getPromotionPiece(), 0);
+    }
+
+    /**
+     * @return the start square index of a packed move
+     */
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    /**
+     * @return the end square index of a packed move
+     */
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the piece a packed move promotes to, or null if it does not promote
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotionBits = (move >>> 12) & 0x7;
+        return promotionBits == 0 ? null : PIECE_TYPES[promotionBits - 1];
+    }
+
+    /**
+     * @return true if every flag in flags is set on the packed move
+     */
+    public static boolean is(int move, int flags) {
+        return (move & flags) == flags;
+    }
+
+    /**
+     * @return the squares and promotion of a packed move, without its flags
+     */
+    public static int key(int move) {
+        return move & KEY_MASK;
+    }
+
+    /**
+     * @return the ChessMove a packed move stands for
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.fromIndex(from(move)), ChessPosition.fromIndex(to(move)),
+                promotion(move));
+    }
+
+    /**
+     * @return a readable form such as "e2e4" or "e7e8q"
+     */
+    public static String toString(int move) {
+        StringBuilder text = new StringBuilder(5);
+        appendSquare(text, from(move));
+        appendSquare(text, to(move));
+        ChessPiece.PieceType promotion = promotion(move);
+        if (promotion != null) {
+            text.append("kqbnrp".charAt(promotion.ordinal()));
+        }
+        return text.toString();
+    }
+
+    private static void appendSquare(StringBuilder text, int square) {
+        text.append((char) ('a' + square % 8)).append((char) ('1' + square / 8));
+    }
+}
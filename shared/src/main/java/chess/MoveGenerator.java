@@ -0,0 +1,257 @@
+package chess;
+
+/**
+ * Generates only legal moves, without trying each candidate on the board.
+ * <p>
+ * Before any moves are generated, the generator works out three things about
+ * the position: which enemy pieces give check, which of the team's pieces are
+ * pinned to their king, and the check mask. The check mask is the set of
+ * squares a non-king move must land on to answer a single check: capture the
+ * checker or block between it and the king. Each piece's pseudo-legal targets
+ * are then limited by the check mask and, if the piece is pinned, by the line
+ * through the king and the piece. King moves are kept only if the end square
+ * is not attacked once the king has left its square.
+ * <p>
+ * Castling and en passant depend on earlier moves, so the game passes in its
+ * castling rights and en passant square. En passant removes two pieces from
+ * one rank at once, which the pin test cannot see, so each en passant capture
+ * is checked by looking at the king's attackers after it.
+ */
+final class MoveGenerator {
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds every legal move of a team to a move list
+     *
+     * @param board           the position to generate moves in
+     * @param color           the team whose moves to generate
+     * @param castlingRights  4-bit castling rights mask of the game
+     * @param enPassantSquare square the team could capture en passant onto,
+     *                        or {@link ChessGame#NO_EN_PASSANT}
+     * @param moves           the list to add packed moves to
+     */
+    static void generateLegalMoves(ChessBoard board, ChessGame.TeamColor color, int castlingRights,
+                                   int enPassantSquare, MoveList moves) {
+        ChessGame.TeamColor enemy = ChessGame.opponent(color);
+        long own = board.occupancy(color);
+        long enemies = board.occupancy(enemy);
+        long occupied = own | enemies;
+        int king = board.kingSquare(color);
+
+        long checkMask = -1L;
+        long pinned = 0;
+        if (king < 64) {
+            long kingBit = 1L << king;
+            // The king cannot hide behind itself from a slider, so look with it removed
+            long targets = Attacks.kingAttacks(king) & ~own;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                if (!board.isSquareAttacked(to, enemy, occupied ^ kingBit)) {
+                    moves.add(Move.encode(king, to, null, (enemies >>> to & 1) != 0 ? Move.CAPTURE : 0));
+                }
+                targets &= targets - 1;
+            }
+
+            long checkers = board.attackersTo(king, enemy, occupied);
+            if (Long.bitCount(checkers) > 1) {
+                // Only the king can answer a double check
+                return;
+            } else if (checkers != 0) {
+                int checker = Long.numberOfTrailingZeros(checkers);
+                checkMask = checkers | Attacks.between(king, checker);
+            } else {
+                addCastlingMoves(board, color, castlingRights, king, occupied, moves);
+            }
+            pinned = pinnedPieces(board, color, king, own, occupied);
+        }
+
+        long movers = own & ~board.pieces(color, ChessPiece.PieceType.KING);
+        while (movers != 0) {
+            int from = Long.numberOfTrailingZeros(movers);
+            ChessPiece.PieceType type = ChessPiece.fromIndex(board.pieceAt(from)).getPieceType();
+            long targets = legalTargets(color, type, from, king, own, enemies, checkMask, pinned);
+            if (type == ChessPiece.PieceType.PAWN) {
+                ChessPiece.addPawnMoves(moves, from, targets, enemies);
+            } else {
+                ChessPiece.addMoves(moves, from, targets, enemies);
+            }
+            movers &= movers - 1;
+        }
+
+        long capturers = enPassantCaptures(board, color, enPassantSquare, king, occupied);
+        while (capturers != 0) {
+            int from = Long.numberOfTrailingZeros(capturers);
+            moves.add(Move.encode(from, enPassantSquare, null, Move.CAPTURE | Move.EN_PASSANT));
+            capturers &= capturers - 1;
+        }
+    }
+
+    /**
+     * Determines whether a team has at least one legal move, stopping at the
+     * first one found. King moves are tried first, captures before quiet
+     * moves, since they are the likeliest answers to a check; every other
+     * piece is a single bitboard test, so it costs no more than its first
+     * move would. Castling needs no test of its own: whenever it is legal,
+     * so is the king's step to the square next to it.
+     *
+     * @param board           the position to look in
+     * @param color           the team to look for a move for
+     * @param enPassantSquare square the team could capture en passant onto,
+     *                        or {@link ChessGame#NO_EN_PASSANT}
+     * @return true if {@link #generateLegalMoves} would add any move
+     */
+    static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor color, int enPassantSquare) {
+        ChessGame.TeamColor enemy = ChessGame.opponent(color);
+        long own = board.occupancy(color);
+        long enemies = board.occupancy(enemy);
+        long occupied = own | enemies;
+        int king = board.kingSquare(color);
+
+        long checkMask = -1L;
+        long pinned = 0;
+        if (king < 64) {
+            long kingBit = 1L << king;
+            long targets = Attacks.kingAttacks(king) & ~own;
+            if (hasSafeSquare(board, targets & enemies, enemy, occupied ^ kingBit)
+                    || hasSafeSquare(board, targets & ~enemies, enemy, occupied ^ kingBit)) {
+                return true;
+            }
+
+            long checkers = board.attackersTo(king, enemy, occupied);
+            if (Long.bitCount(checkers) > 1) {
+                return false;
+            } else if (checkers != 0) {
+                int checker = Long.numberOfTrailingZeros(checkers);
+                checkMask = checkers | Attacks.between(king, checker);
+            }
+            pinned = pinnedPieces(board, color, king, own, occupied);
+        }
+
+        long movers = own & ~board.pieces(color, ChessPiece.PieceType.KING);
+        while (movers != 0) {
+            int from = Long.numberOfTrailingZeros(movers);
+            ChessPiece.PieceType type = ChessPiece.fromIndex(board.pieceAt(from)).getPieceType();
+            if (legalTargets(color, type, from, king, own, enemies, checkMask, pinned) != 0) {
+                return true;
+            }
+            movers &= movers - 1;
+        }
+        return enPassantCaptures(board, color, enPassantSquare, king, occupied) != 0;
+    }
+
+    /**
+     * Adds the castling moves a king on its starting square can make: the
+     * right must not have been lost, the rook must be in its corner, the
+     * squares between them empty, and the squares the king crosses and lands
+     * on unattacked. The caller has already made sure the king is not in check.
+     */
+    private static void addCastlingMoves(ChessBoard board, ChessGame.TeamColor color, int castlingRights, int king,
+                                         long occupied, MoveList moves) {
+        int home = (color == ChessGame.TeamColor.WHITE) ? 4 : 60;
+        if (king != home) {
+            return;
+        }
+        ChessGame.TeamColor enemy = ChessGame.opponent(color);
+        int rights = castlingRights >>> (2 * color.ordinal());
+        long rooks = board.pieces(color, ChessPiece.PieceType.ROOK);
+        if ((rights & ChessGame.CASTLE_KINGSIDE) != 0 && (rooks >>> (home + 3) & 1) != 0
+                && (Attacks.between(home, home + 3) & occupied) == 0
+                && !board.isSquareAttacked(home + 1, enemy, occupied)
+                && !board.isSquareAttacked(home + 2, enemy, occupied)) {
+            moves.add(Move.encode(home, home + 2, null, Move.CASTLE));
+        }
+        if ((rights & ChessGame.CASTLE_QUEENSIDE) != 0 && (rooks >>> (home - 4) & 1) != 0
+                && (Attacks.between(home, home - 4) & occupied) == 0
+                && !board.isSquareAttacked(home - 1, enemy, occupied)
+                && !board.isSquareAttacked(home - 2, enemy, occupied)) {
+            moves.add(Move.encode(home, home - 2, null, Move.CASTLE));
+        }
+    }
+
+    /**
+     * @return bitboard of the team's pawns that can legally capture en
+     * passant onto the square
+     */
+    private static long enPassantCaptures(ChessBoard board, ChessGame.TeamColor color, int enPassantSquare,
+                                          int king, long occupied) {
+        if (enPassantSquare == ChessGame.NO_EN_PASSANT) {
+            return 0;
+        }
+        ChessGame.TeamColor enemy = ChessGame.opponent(color);
+        long captured = 1L << ((color == ChessGame.TeamColor.WHITE) ? enPassantSquare - 8 : enPassantSquare + 8);
+        long capturers = Attacks.pawnAttacks(enemy, enPassantSquare) & board.pieces(color, ChessPiece.PieceType.PAWN);
+        if (king == 64) {
+            return capturers;
+        }
+        long legal = 0;
+        while (capturers != 0) {
+            long from = capturers & -capturers;
+            long after = (occupied ^ from ^ captured) | 1L << enPassantSquare;
+            // The captured pawn is gone, so it no longer counts as an attacker either
+            if ((board.attackersTo(king, enemy, after) & ~captured) == 0) {
+                legal |= from;
+            }
+            capturers &= capturers - 1;
+        }
+        return legal;
+    }
+
+    /**
+     * @return true if any of the squares is not attacked by the enemy team
+     * with the given occupancy
+     */
+    private static boolean hasSafeSquare(ChessBoard board, long squares, ChessGame.TeamColor enemy, long occupied) {
+        while (squares != 0) {
+            if (!board.isSquareAttacked(Long.numberOfTrailingZeros(squares), enemy, occupied)) {
+                return true;
+            }
+            squares &= squares - 1;
+        }
+        return false;
+    }
+
+    /**
+     * @return bitboard of the squares a team's non-king piece can legally move
+     * to, given the check mask and pinned pieces of the position
+     */
+    private static long legalTargets(ChessGame.TeamColor color, ChessPiece.PieceType type, int from, int king,
+                                     long own, long enemies, long checkMask, long pinned) {
+        long occupied = own | enemies;
+        long targets;
+        if (type == ChessPiece.PieceType.PAWN) {
+            targets = ChessPiece.pawnTargets(color, from, occupied, enemies);
+        } else {
+            targets = ChessPiece.attacks(type, color, from, occupied) & ~own;
+        }
+        targets &= checkMask;
+        if ((pinned >>> from & 1) != 0) {
+            // A pinned piece may only slide along the line through its king
+            targets &= Attacks.line(king, from);
+        }
+        return targets;
+    }
+
+    /**
+     * @return bitboard of the team's pieces that are the only piece between
+     * their king and an enemy slider aimed at it
+     */
+    private static long pinnedPieces(ChessBoard board, ChessGame.TeamColor color, int king, long own,
+                                     long occupied) {
+        ChessGame.TeamColor enemy = ChessGame.opponent(color);
+        long queens = board.pieces(enemy, ChessPiece.PieceType.QUEEN);
+        long snipers = (Attacks.rookAttacks(king, 0) & (board.pieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishopAttacks(king, 0) & (board.pieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            long blockers = Attacks.between(king, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+}
@@ -0,0 +1,97 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A growable list of packed moves (see {@link Move}) backed by an int array.
+ * <p>
+ * A list is meant to be cleared and refilled rather than thrown away, so
+ * move generation can run without allocating once the list has grown to fit.
+ */
+public final class MoveList {
+
+    // More than the most legal moves any chess position has
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    /**
+     * Appends a packed move
+     *
+     * @param move the move to add
+     */
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, Math.max(DEFAULT_CAPACITY, size * 2));
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * @param index position in the list
+     * @return the packed move at that position
+     */
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    /**
+     * @return how many moves are in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the list has no moves
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Empties the list while keeping its storage
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Converts the list for the public ChessMove based API
+     *
+     * @return a new collection holding a ChessMove for every packed move
+     */
+    public Collection<ChessMove> toChessMoves() {
+        Collection<ChessMove> chessMoves = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(Move.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("MoveList{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(Move.toString(moves[i]));
+        }
+        return text.append('}').toString();
+    }
+}
@@ -0,0 +1,143 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts perft nodes on several cores with a {@link ForkJoinPool}.
+ * <p>
+ * The tree is always split at the root, one task per legal move. Each task
+ * works on its own copy of the game, so no board is ever shared between
+ * threads. A task below the root splits again only while other workers are
+ * running out of queued work, which lets large subtrees be broken up further
+ * when the root moves are uneven without paying for tasks nobody needs.
+ * <p>
+ * Run {@code java -cp shared/target/classes chess.ParallelPerft [depth] [fen]}
+ * to measure scaling from one thread up to every available core.
+ */
+public final class ParallelPerft {
+
+    // Subtrees this shallow are always counted on the current thread
+    private static final int SEQUENTIAL_DEPTH = 3;
+    // Split below the root only while fewer tasks than this are waiting to be stolen
+    private static final int SURPLUS_THRESHOLD = 2;
+
+    private ParallelPerft() {
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree below the game's position
+     * using the given pool. The game itself is not modified.
+     *
+     * @param game  the position to search
+     * @param depth how many plies to search
+     * @param pool  the pool to run on
+     * @return the same count {@link Perft#perft(ChessGame, int)} returns
+     */
+    public static long perft(ChessGame game, int depth, ForkJoinPool pool) {
+        return perft(game, depth, pool, null);
+    }
+
+    /**
+     * Counts leaf nodes on the pool like {@link #perft(ChessGame, int, ForkJoinPool)},
+     * with every worker reading and filling the same table
+     *
+     * @param table shared subtree counts, or null to search without one
+     */
+    public static long perft(ChessGame game, int depth, ForkJoinPool pool, PerftTable table) {
+        return pool.invoke(new PerftTask(new ChessGame(game), depth, true, table));
+    }
+
+    private static final class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+        private final boolean isRoot;
+        private final PerftTable table;
+
+        private PerftTask(ChessGame game, int depth, boolean isRoot, PerftTable table) {
+            this.game = game;
+            this.depth = depth;
+            this.isRoot = isRoot;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            boolean split = isRoot || getSurplusQueuedTaskCount() < SURPLUS_THRESHOLD;
+            if (depth <= SEQUENTIAL_DEPTH || !split) {
+                return Perft.perft(game, depth, table);
+            }
+            long key = game.getZobristKey();
+            if (table != null) {
+                long cached = table.get(key, depth);
+                if (cached >= 0) {
+                    return cached;
+                }
+            }
+            MoveList moves = new MoveList();
+            game.generateLegalMoves(moves);
+            List<PerftTask> subtasks = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                ChessGame child = new ChessGame(game);
+                child.makeMove(moves.get(i));
+                subtasks.add(new PerftTask(child, depth - 1, false, table));
+            }
+            long nodes = 0;
+            for (PerftTask subtask : invokeAll(subtasks)) {
+                nodes += subtask.join();
+            }
+            if (table != null) {
+                table.put(key, depth, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Runs the same count with 1, 2, 4, ... threads up to the number of cores
+     * and prints the speedup and parallel efficiency of each run against the
+     * single-threaded one. Exits with status 1 if any run disagrees. A leading
+     * {@code --hash=MB} gives each run a fresh shared table of that size.
+     */
+    public static void main(String[] args) {
+        int hashMegabytes = 0;
+        if (args.length > 0 && args[0].startsWith("--hash=")) {
+            hashMegabytes = Integer.parseInt(args[0].substring("--hash=".length()));
+            args = List.of(args).subList(1, args.length).toArray(new String[0]);
+        }
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        String fen = args.length > 1 ? String.join(" ", List.of(args).subList(1, args.length)) : Fen.START_POSITION;
+        ChessGame game = Fen.parse(fen);
+        int cores = Runtime.getRuntime().availableProcessors();
+        // Let the JIT compile the hot paths before the single-threaded baseline
+        Perft.perft(game, Math.min(depth - 1, 5));
+
+        long baseNanos = 0;
+        long baseNodes = -1;
+        for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long start = System.nanoTime();
+            PerftTable table = (hashMegabytes > 0) ? new PerftTable(hashMegabytes) : null;
+            long nodes = perft(game, depth, pool, table);
+            long nanos = System.nanoTime() - start;
+            pool.shutdown();
+
+            if (threads == 1) {
+                baseNanos = nanos;
+                baseNodes = nodes;
+            } else if (nodes != baseNodes) {
+                System.out.printf("%2d threads counted %,d nodes, single thread counted %,d%n",
+                        threads, nodes, baseNodes);
+                System.exit(1);
+            }
+            double speedup = (double) baseNanos / nanos;
+            System.out.printf("%2d threads: %,15d nodes %8.2f s %,15.0f nodes/s  speedup %5.2fx  efficiency %5.1f%%%n",
+                    threads, nodes, nanos / 1e9, nodes / (nanos / 1e9), speedup, 100 * speedup / threads);
+            if (threads == cores) {
+                break;
+            }
+        }
+    }
+}
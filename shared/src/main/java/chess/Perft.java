@@ -0,0 +1,201 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Perft ("performance test") counts the leaf nodes of the legal move tree to
+ * a fixed depth. The counts for well known positions are published, so a
+ * match is strong evidence that move generation and make/unmake are correct,
+ * and the time taken is a direct measure of their speed.
+ * <p>
+ * Run {@code java -cp shared/target/classes chess.Perft} for the standard
+ * suite, or pass a depth and a FEN string to count a single position with a
+ * per-move breakdown.
+ */
+public final class Perft {
+
+    /**
+     * A position from the standard perft suite with its published counts
+     *
+     * @param name     short label for reports
+     * @param fen      the position
+     * @param expected expected[d - 1] is the node count at depth d
+     */
+    public record Position(String name, String fen, long[] expected) {
+    }
+
+    /** Standard positions, from the Chess Programming Wiki's perft results */
+    public static final Position[] STANDARD_POSITIONS = {
+            new Position("start", Fen.START_POSITION,
+                    new long[]{20, 400, 8902, 197281, 4865609, 119060324}),
+            new Position("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[]{48, 2039, 97862, 4085603, 193690690}),
+            new Position("position3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    new long[]{14, 191, 2812, 43238, 674624, 11030083}),
+            new Position("position4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[]{6, 264, 9467, 422333, 15833292}),
+            new Position("position5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    new long[]{44, 1486, 62379, 2103487, 89941194}),
+            new Position("position6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    new long[]{46, 2079, 89890, 3894594, 164075551}),
+    };
+
+    // Deepest ply of each standard position the default run goes to
+    private static final int[] DEFAULT_DEPTHS = {5, 4, 5, 4, 4, 4};
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree below the game's current
+     * position. The game is searched in place with makeMove/unmakeMove and is
+     * back in its starting state when this returns.
+     *
+     * @param game  the position to search, with its side to move
+     * @param depth how many plies to search
+     * @return the number of move sequences of exactly that length
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game, depth, null);
+    }
+
+    /**
+     * Counts leaf nodes like {@link #perft(ChessGame, int)}, reusing the counts
+     * of subtrees already in the table. Transpositions reach the same position
+     * by different move orders, so deep trees repeat a lot of work without one.
+     *
+     * @param game  the position to search, with its side to move
+     * @param depth how many plies to search
+     * @param table counts to read and add to, possibly shared with other
+     *              threads; null to search without one
+     * @return the number of move sequences of exactly that length
+     */
+    public static long perft(ChessGame game, int depth, PerftTable table) {
+        if (depth <= 0) {
+            return 1;
+        }
+        MoveList[] lists = new MoveList[depth];
+        for (int i = 0; i < depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return perft(game, depth, lists, table);
+    }
+
+    private static long perft(ChessGame game, int depth, MoveList[] lists, PerftTable table) {
+        long key = 0;
+        if (table != null && depth > 1) {
+            key = game.getZobristKey();
+            long cached = table.get(key, depth);
+            if (cached >= 0) {
+                return cached;
+            }
+        }
+        MoveList moves = lists[depth - 1];
+        moves.clear();
+        game.generateLegalMoves(moves);
+        // Every legal move is one leaf, so the last ply needs no make/unmake
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            nodes += perft(game, depth - 1, lists, table);
+            game.unmakeMove();
+        }
+        if (table != null) {
+            table.put(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Runs perft below each legal move of the current position separately,
+     * which narrows a wrong total down to the moves whose subtrees differ
+     *
+     * @param game  the position to search
+     * @param depth how many plies to search, counting the root move
+     * @return the node count below each root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        return divide(game, depth, null);
+    }
+
+    /**
+     * Runs divide like {@link #divide(ChessGame, int)}, searching each root
+     * move's subtree with a perft table
+     *
+     * @param game  the position to search
+     * @param depth how many plies to search, counting the root move
+     * @param table counts to read and add to; null to search without one
+     * @return the node count below each root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth, PerftTable table) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            counts.put(Move.toChessMove(moves.get(i)), perft(game, depth - 1, table));
+            game.unmakeMove();
+        }
+        return counts;
+    }
+
+    /**
+     * With no arguments, runs the standard suite and exits with status 1 if
+     * any count is wrong. With a depth and a FEN string, prints the divide
+     * breakdown and total for that position. A leading {@code --hash=MB}
+     * searches with a perft table of that size in either mode.
+     */
+    public static void main(String[] args) {
+        PerftTable table = null;
+        if (args.length > 0 && args[0].startsWith("--hash=")) {
+            table = new PerftTable(Integer.parseInt(args[0].substring("--hash=".length())));
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        if (args.length >= 2) {
+            int depth = Integer.parseInt(args[0]);
+            ChessGame game = Fen.parse(String.join(" ", Arrays.copyOfRange(args, 1, args.length)));
+            long start = System.nanoTime();
+            long total = 0;
+            for (Map.Entry<ChessMove, Long> entry : divide(game, depth, table).entrySet()) {
+                ChessMove move = entry.getKey();
+                System.out.println(Move.toString(Move.encode(move)) + ": " + entry.getValue());
+                total += entry.getValue();
+            }
+            report("total", depth, total, System.nanoTime() - start);
+            return;
+        }
+
+        boolean allMatch = true;
+        long totalNodes = 0;
+        long totalNanos = 0;
+        for (int i = 0; i < STANDARD_POSITIONS.length; i++) {
+            Position position = STANDARD_POSITIONS[i];
+            int depth = DEFAULT_DEPTHS[i];
+            ChessGame game = Fen.parse(position.fen());
+            long start = System.nanoTime();
+            long nodes = perft(game, depth, table);
+            long nanos = System.nanoTime() - start;
+            boolean match = nodes == position.expected()[depth - 1];
+            allMatch &= match;
+            totalNodes += nodes;
+            totalNanos += nanos;
+            report(position.name() + (match ? "" : " MISMATCH, expected " + position.expected()[depth - 1]),
+                    depth, nodes, nanos);
+        }
+        System.out.printf("%d nodes in %.2f s, %,.0f nodes/s%n",
+                totalNodes, totalNanos / 1e9, totalNodes / (totalNanos / 1e9));
+        if (!allMatch) {
+            System.exit(1);
+        }
+    }
+
+    private static void report(String label, int depth, long nodes, long nanos) {
+        System.out.printf("%-12s depth %d: %,15d nodes %8.2f s %,15.0f nodes/s%n",
+                label, depth, nodes, nanos / 1e9, nodes / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,60 @@
+package chess;
+
+/**
+ * A fixed-size hash table of perft subtree counts, keyed by position
+ * {@link ChessGame#getZobristKey() Zobrist key} and depth, that many threads
+ * can share without locks.
+ * <p>
+ * Each entry is two longs: the count packed with its depth, and that value
+ * XORed with the position key. Threads may race and leave an entry with one
+ * long from each of two writes, but such an entry no longer XORs back to the
+ * key being probed and is simply treated as a miss. New entries always
+ * replace old ones.
+ */
+public final class PerftTable {
+
+    private static final int DEPTH_BITS = 8;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+    private final long[] entries;
+    private final long indexMask;
+
+    /**
+     * @param megabytes roughly how much memory to use; rounded down to a
+     *                  power-of-two number of entries
+     */
+    public PerftTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        int slots = Integer.highestOneBit((int) Math.min(bytes / 16, 1 << 28));
+        this.entries = new long[slots * 2];
+        this.indexMask = slots - 1;
+    }
+
+    /**
+     * @param key   the position's Zobrist key
+     * @param depth the depth the count was taken to
+     * @return the stored count, or -1 if this table does not have it
+     */
+    public long get(long key, int depth) {
+        int slot = (int) (key & indexMask) * 2;
+        long data = entries[slot + 1];
+        if ((entries[slot] ^ data) != key || (data & DEPTH_MASK) != depth) {
+            return -1;
+        }
+        return data >>> DEPTH_BITS;
+    }
+
+    /**
+     * Stores a count, replacing whatever shared its slot
+     *
+     * @param key   the position's Zobrist key
+     * @param depth the depth the count was taken to
+     * @param nodes the count
+     */
+    public void put(long key, int depth, long nodes) {
+        int slot = (int) (key & indexMask) * 2;
+        long data = nodes << DEPTH_BITS | depth;
+        entries[slot] = key ^ data;
+        entries[slot + 1] = data;
+    }
+}
@@ -0,0 +1,138 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Every valid move of one team in one position, grouped by start square.
+ * <p>
+ * The packed moves (see {@link Move}) sit in a single array sorted by start
+ * square, with a second array giving where each square's moves begin, so
+ * looking up one piece's moves is two array reads. Instances never change
+ * once built and can be shared freely, e.g. sent to a client to highlight
+ * moves without asking the game again for each square.
+ */
+public final class ValidMoves {
+
+    // Moves from square s are moves[offsets[s]] up to, not including, moves[offsets[s + 1]]
+    private final int[] offsets = new int[65];
+    private final int[] moves;
+
+    /**
+     * Groups a list of legal moves by start square
+     *
+     * @param legalMoves the moves, in any order; the list is not kept
+     */
+    ValidMoves(MoveList legalMoves) {
+        int size = legalMoves.size();
+        for (int i = 0; i < size; i++) {
+            offsets[Move.from(legalMoves.get(i)) + 1]++;
+        }
+        for (int square = 0; square < 64; square++) {
+            offsets[square + 1] += offsets[square];
+        }
+        // Fill each square's run in generation order, using a running copy of the starts
+        int[] next = new int[64];
+        System.arraycopy(offsets, 0, next, 0, 64);
+        this.moves = new int[size];
+        for (int i = 0; i < size; i++) {
+            int move = legalMoves.get(i);
+            moves[next[Move.from(move)]++] = move;
+        }
+    }
+
+    /**
+     * @return how many valid moves the team has in total
+     */
+    public int size() {
+        return moves.length;
+    }
+
+    /**
+     * @return true if the team has no valid move
+     */
+    public boolean isEmpty() {
+        return moves.length == 0;
+    }
+
+    /**
+     * @param index position among all moves, 0 to size() - 1, ordered by start square
+     * @return the packed move at that position
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * @param square start square index (see {@link ChessPosition#getIndex()})
+     * @return how many valid moves start on the square
+     */
+    public int count(int square) {
+        return offsets[square + 1] - offsets[square];
+    }
+
+    /**
+     * @param square start square index (see {@link ChessPosition#getIndex()})
+     * @return the index, for {@link #get(int)}, of the square's first move
+     */
+    public int start(int square) {
+        return offsets[square];
+    }
+
+    /**
+     * Gets the valid moves of the piece on a square
+     *
+     * @param startPosition the square the moves start from
+     * @return a new collection of the moves, empty if there are none
+     */
+    public Collection<ChessMove> from(ChessPosition startPosition) {
+        int square = startPosition.getIndex();
+        Collection<ChessMove> chessMoves = new ArrayList<>(count(square));
+        for (int i = offsets[square]; i < offsets[square + 1]; i++) {
+            chessMoves.add(Move.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+
+    /**
+     * Finds a move by its squares and promotion, ignoring flags, looking only
+     * at the moves from its start square
+     *
+     * @param key a move as returned by {@link Move#key(int)} or {@link Move#encode(ChessMove)}
+     * @return the full packed move, or {@link Move#NONE} if it is not valid
+     */
+    public int find(int key) {
+        int square = Move.from(key);
+        for (int i = offsets[square]; i < offsets[square + 1]; i++) {
+            if (Move.key(moves[i]) == key) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Converts every move for the public ChessMove based API
+     *
+     * @return a new collection holding a ChessMove for every valid move
+     */
+    public Collection<ChessMove> toChessMoves() {
+        Collection<ChessMove> chessMoves = new ArrayList<>(moves.length);
+        for (int move : moves) {
+            chessMoves.add(Move.toChessMove(move));
+        }
+        return chessMoves;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("ValidMoves{");
+        for (int i = 0; i < moves.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(Move.toString(moves[i]));
+        }
+        return text.append('}').toString();
+    }
+}
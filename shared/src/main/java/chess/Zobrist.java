@@ -0,0 +1,72 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the key of
+ * every piece on its square together with the keys for the side to move,
+ * castling rights and en passant file, so making or taking back a move only
+ * XORs in the few keys that changed.
+ * <p>
+ * The keys come from a fixed seed, so a position hashes to the same value on
+ * every run and on every server.
+ */
+final class Zobrist {
+
+    private static final long SEED = 0x5EED_C4E5_5B0A_4D5L;
+
+    // Indexed by ChessBoard bitboard index, then square index
+    private static final long[][] PIECE_SQUARE = new long[ChessBoard.PIECE_KINDS][64];
+    // Indexed by a 4-bit castling rights mask
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = random.nextLong();
+            }
+        }
+        // No rights at all leaves the key unchanged
+        for (int rights = 1; rights < 16; rights++) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return the key for a piece (by ChessBoard bitboard index) on a square
+     */
+    static long piece(int piece, int square) {
+        return PIECE_SQUARE[piece][square];
+    }
+
+    /**
+     * @return the key for a 4-bit castling rights mask
+     */
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @return the key for an en passant capture being possible on a file (0-7)
+     */
+    static long enPassantFile(int file) {
+        return EN_PASSANT_FILE[file];
+    }
+
+    /**
+     * @return the key XORed in when black is to move
+     */
+    static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+}
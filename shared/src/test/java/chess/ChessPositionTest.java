@@ -0,0 +1,57 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChessPositionTest {
+
+    // One past each edge, including columns that would wrap onto the next or previous rank
+    private static final ChessPosition[] OFF_BOARD = {
+            new ChessPosition(1, 9), new ChessPosition(2, 0), new ChessPosition(0, 1),
+            new ChessPosition(9, 8), ChessPosition.of(1, 9), ChessPosition.of(8, 0),
+    };
+
+    @Test
+    @DisplayName("Off Board Positions Have No Index")
+    public void offBoardIndex() {
+        for (ChessPosition position : OFF_BOARD) {
+            Assertions.assertFalse(position.isOnBoard(), position.toString());
+            Assertions.assertThrows(IndexOutOfBoundsException.class, position::getIndex, position.toString());
+        }
+        Assertions.assertTrue(ChessPosition.of(1, 1).isOnBoard());
+        Assertions.assertEquals(63, ChessPosition.of(8, 8).getIndex());
+    }
+
+    @Test
+    @DisplayName("Board Rejects Off Board Positions")
+    public void offBoardBoard() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessPiece rook = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        for (ChessPosition position : OFF_BOARD) {
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> board.getPiece(position),
+                    position.toString());
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> board.addPiece(position, rook),
+                    position.toString());
+        }
+        ChessBoard fresh = new ChessBoard();
+        fresh.resetBoard();
+        Assertions.assertEquals(fresh, board);
+    }
+
+    @Test
+    @DisplayName("Off Board Move Is Invalid")
+    public void offBoardMove() {
+        ChessGame game = new ChessGame();
+        // Row 1 column 9 would alias a2 without the bounds check
+        ChessMove fromOffBoard = new ChessMove(new ChessPosition(1, 9), new ChessPosition(3, 1), null);
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(fromOffBoard));
+        ChessMove toOffBoard = new ChessMove(new ChessPosition(2, 8), new ChessPosition(3, 9), null);
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(toOffBoard));
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertEquals(0, game.getPly());
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> game.validMoves(new ChessPosition(1, 9)));
+    }
+}
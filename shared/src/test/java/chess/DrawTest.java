@@ -0,0 +1,165 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrawTest {
+
+    @Test
+    @DisplayName("Threefold Repetition On The Eighth Ply")
+    public void knightShuffle() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (int shuffle = 0; shuffle < 2; shuffle++) {
+            move(game, 1, 7, 3, 6);
+            move(game, 8, 7, 6, 6);
+            move(game, 3, 6, 1, 7);
+            move(game, 6, 6, 8, 7);
+            if (shuffle == 0) {
+                // Back to the start a second time, which is not yet a draw
+                Assertions.assertFalse(game.isThreefoldRepetition());
+                Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getGameStatus(game.getTeamTurn()));
+            }
+        }
+        Assertions.assertEquals(8, game.getPly());
+        Assertions.assertTrue(game.isThreefoldRepetition());
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW_BY_REPETITION, game.getGameStatus(game.getTeamTurn()));
+
+        for (int ply = 7; ply >= 0; ply--) {
+            game.seek(ply);
+            Assertions.assertFalse(game.isThreefoldRepetition(), "ply " + ply);
+        }
+        game.seek(8);
+        Assertions.assertTrue(game.isThreefoldRepetition());
+    }
+
+    @Test
+    @DisplayName("Fifty Move Rule On The Hundredth Ply")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = Fen.parse("8/8/4k3/8/8/8/3QK3/8 w - - 99 80");
+        Assertions.assertEquals(99, game.getHalfmoveClock());
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getGameStatus(game.getTeamTurn()));
+
+        move(game, 2, 4, 2, 3);
+        Assertions.assertEquals(100, game.getHalfmoveClock());
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW_BY_FIFTY_MOVE_RULE, game.getGameStatus(game.getTeamTurn()));
+        Assertions.assertTrue(game.getGameStatus(game.getTeamTurn()).isGameOver());
+
+        game.unmakeMove();
+        Assertions.assertEquals(99, game.getHalfmoveClock());
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getGameStatus(game.getTeamTurn()));
+
+        game.redoMove();
+        Assertions.assertEquals(100, game.getHalfmoveClock());
+        game.seek(0);
+        Assertions.assertEquals(99, game.getHalfmoveClock());
+        game.seek(1);
+        Assertions.assertEquals(100, game.getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("Pawn Move And Capture Reset The Clock")
+    public void clockReset() throws InvalidMoveException {
+        ChessGame pawnMove = Fen.parse("4k3/8/8/8/8/8/3PK3/8 w - - 99 80");
+        move(pawnMove, 2, 4, 3, 4);
+        Assertions.assertEquals(0, pawnMove.getHalfmoveClock());
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, pawnMove.getGameStatus(pawnMove.getTeamTurn()));
+
+        ChessGame capture = Fen.parse("4k3/8/8/8/8/8/4K3/R6r w - - 99 80");
+        move(capture, 1, 1, 1, 8);
+        Assertions.assertEquals(0, capture.getHalfmoveClock());
+        capture.unmakeMove();
+        Assertions.assertEquals(99, capture.getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("Checkmate On The Hundredth Ply Still Wins")
+    public void checkmateBeatsFiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = Fen.parse("7k/8/6K1/8/8/8/8/Q7 w - - 99 80");
+        move(game, 1, 1, 8, 1);
+        Assertions.assertEquals(100, game.getHalfmoveClock());
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getGameStatus(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Kings Alone")
+    public void kingsAlone() {
+        Assertions.assertTrue(insufficient("4k3/8/8/8/8/8/8/4K3"));
+    }
+
+    @Test
+    @DisplayName("Single Minor Piece")
+    public void singleMinorPiece() {
+        Assertions.assertTrue(insufficient("4k3/8/8/8/8/8/8/2B1K3"), "K+B v K");
+        Assertions.assertTrue(insufficient("4k3/8/8/8/8/8/8/1N2K3"), "K+N v K");
+        Assertions.assertTrue(insufficient("2b1k3/8/8/8/8/8/8/4K3"), "K v K+B");
+        Assertions.assertTrue(insufficient("1n2k3/8/8/8/8/8/8/4K3"), "K v K+N");
+    }
+
+    @Test
+    @DisplayName("Enough Material To Mate")
+    public void sufficientMaterial() {
+        Assertions.assertFalse(insufficient("1n2k3/8/8/8/8/8/8/2B1K3"), "K+B v K+N");
+        Assertions.assertFalse(insufficient("4k3/8/8/8/8/8/8/1NN1K3"), "K+N+N v K");
+        Assertions.assertFalse(insufficient("4k3/8/8/8/8/8/8/2B1KB2"), "K+B+B v K, both colors");
+        Assertions.assertFalse(insufficient("4k3/8/8/8/8/8/4P3/4K3"), "K+P v K");
+        Assertions.assertFalse(insufficient("4k3/8/8/8/8/8/8/R3K3"), "K+R v K");
+        Assertions.assertFalse(insufficient("4k3/8/8/8/8/8/8/3QK3"), "K+Q v K");
+    }
+
+    @Test
+    @DisplayName("Bishops On One Square Color")
+    public void sameColorBishops() {
+        // c1 and f8 are dark, f1 and c8 light
+        Assertions.assertTrue(insufficient("4kb2/8/8/8/8/8/8/2B1K3"), "dark bishops");
+        Assertions.assertTrue(insufficient("2b1k3/8/8/8/8/8/8/4KB2"), "light bishops");
+        Assertions.assertFalse(insufficient("2b1k3/8/8/8/8/8/8/2B1K3"), "opposite color bishops");
+        Assertions.assertTrue(insufficient("2b1k3/1b6/8/8/8/8/8/4KB2"), "three light bishops");
+    }
+
+    @Test
+    @DisplayName("Square Colors Of Every Bishop Pair")
+    public void bishopSquareColors() {
+        ChessPosition whiteKing = new ChessPosition(1, 1);
+        ChessPosition blackKing = new ChessPosition(8, 8);
+        for (int first = 0; first < 64; first++) {
+            for (int second = first + 1; second < 64; second++) {
+                ChessPosition a = ChessPosition.of(first / 8 + 1, first % 8 + 1);
+                ChessPosition b = ChessPosition.of(second / 8 + 1, second % 8 + 1);
+                if (a.equals(whiteKing) || a.equals(blackKing) || b.equals(whiteKing) || b.equals(blackKing)) {
+                    continue;
+                }
+                ChessBoard board = new ChessBoard();
+                board.addPiece(whiteKing, new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+                board.addPiece(blackKing, new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+                board.addPiece(a, new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+                board.addPiece(b, new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+                // a1 is dark, so a square is light when its row and column sum to an odd number
+                boolean sameColor = (a.getRow() + a.getColumn()) % 2 == (b.getRow() + b.getColumn()) % 2;
+                Assertions.assertEquals(sameColor, board.hasInsufficientMaterial(), a + " and " + b);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Capture Down To Bare Kings Ends The Game")
+    public void insufficientMaterialStatus() throws InvalidMoveException {
+        ChessGame game = Fen.parse("8/8/8/8/4k3/8/4r3/4K3 w - - 0 1");
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, game.getGameStatus(ChessGame.TeamColor.WHITE));
+        move(game, 1, 5, 2, 5);
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW_BY_INSUFFICIENT_MATERIAL,
+                game.getGameStatus(game.getTeamTurn()));
+        Assertions.assertTrue(game.getGameStatus(game.getTeamTurn()).isGameOver());
+        game.unmakeMove();
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, game.getGameStatus(ChessGame.TeamColor.WHITE));
+    }
+
+    private static boolean insufficient(String placement) {
+        return Fen.parse(placement + " w - - 0 1").getBoard().hasInsufficientMaterial();
+    }
+
+    private static void move(ChessGame game, int fromRow, int fromCol, int toRow, int toCol)
+            throws InvalidMoveException {
+        game.makeMove(new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null));
+    }
+}
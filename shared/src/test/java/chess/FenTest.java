@@ -0,0 +1,68 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+public class FenTest {
+
+    @Test
+    @DisplayName("Start Position Matches New Game")
+    public void startPosition() {
+        ChessGame game = Fen.parse(Fen.START_POSITION);
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertEquals(new ChessGame().getZobristKey(), game.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Capturable En Passant Square Is Kept")
+    public void enPassantKept() throws InvalidMoveException {
+        ChessGame game = Fen.parse("4k3/8/8/3Pp3/8/8/8/4K3 w - e6 0 1");
+        Collection<ChessMove> moves = game.validMoves(new ChessPosition(5, 4));
+        Assertions.assertTrue(moves.contains(new ChessMove(new ChessPosition(5, 4), new ChessPosition(6, 5), null)));
+
+        // The same position reached by the double push hashes the same
+        ChessGame played = Fen.parse("4k3/4p3/8/3P4/8/8/8/4K3 b - - 0 1");
+        played.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        Assertions.assertEquals(played, game);
+        Assertions.assertEquals(played.getZobristKey(), game.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("En Passant Square On The Wrong Rank Is Dropped")
+    public void enPassantWrongRank() {
+        ChessGame game = Fen.parse("4k3/8/8/8/8/8/3P4/4K3 w - e3 0 1");
+        Collection<ChessMove> moves = game.validMoves(new ChessPosition(2, 4));
+        Assertions.assertFalse(moves.contains(new ChessMove(new ChessPosition(2, 4), new ChessPosition(3, 5), null)),
+                "d2 must not capture onto an empty e3");
+        Assertions.assertEquals(Fen.parse("4k3/8/8/8/8/8/3P4/4K3 w - - 0 1").getZobristKey(), game.getZobristKey());
+
+        ChessGame black = Fen.parse("4k3/8/8/3Pp3/8/8/8/4K3 b - e6 0 1");
+        Assertions.assertEquals(Fen.parse("4k3/8/8/3Pp3/8/8/8/4K3 b - - 0 1"), black);
+    }
+
+    @Test
+    @DisplayName("En Passant Square Without A Pawn To Capture Is Dropped")
+    public void enPassantNoPawn() {
+        // No black pawn on e5 to have made the double push
+        Assertions.assertEquals(Fen.parse("4k3/8/8/3P4/8/8/8/4K3 w - - 0 1"),
+                Fen.parse("4k3/8/8/3P4/8/8/8/4K3 w - e6 0 1"));
+        // A pawn that could have pushed, but nothing to capture it
+        ChessGame uncapturable = Fen.parse("4k3/8/8/4p3/8/8/8/4K3 w - e6 0 1");
+        Assertions.assertEquals(Fen.parse("4k3/8/8/4p3/8/8/8/4K3 w - - 0 1"), uncapturable);
+        Assertions.assertEquals(Fen.parse("4k3/8/8/4p3/8/8/8/4K3 w - - 0 1").getZobristKey(),
+                uncapturable.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Malformed Fields Are Rejected")
+    public void malformed() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("4k3/8/8/8/8/8/8/4K3"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("4k3/8/8/8/8/8/8/4K3 x - - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("4k3/8/8/8/8/8/8/4K3 w X - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("4k3/8/8/8/8/8/8/4K3 w - e4 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - x 1"));
+    }
+}
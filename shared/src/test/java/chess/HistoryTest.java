@@ -0,0 +1,161 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class HistoryTest {
+
+    // Long enough to span several checkpoints
+    private static final int GAME_LENGTH = 100;
+    private static final int GAMES = 24;
+
+    @Test
+    @DisplayName("Seek Restores Every Ply")
+    public void seek() {
+        Random random = new Random(1);
+        for (int i = 0; i < GAMES; i++) {
+            String fen = Perft.STANDARD_POSITIONS[i % Perft.STANDARD_POSITIONS.length].fen();
+            ChessGame game = Fen.parse(fen);
+            List<ChessGame> expected = playRandomMoves(game, GAME_LENGTH, random);
+            int size = game.getHistorySize();
+            Assertions.assertEquals(expected.size() - 1, size, fen);
+
+            for (int seek = 0; seek < 2 * size; seek++) {
+                int ply = random.nextInt(size + 1);
+                game.seek(ply);
+                assertAtPly(expected.get(ply), game, ply, fen);
+            }
+            // Every ply once in each direction, so each step is a single unmake or redo
+            for (int ply = size; ply >= 0; ply--) {
+                game.seek(ply);
+                assertAtPly(expected.get(ply), game, ply, fen);
+            }
+            for (int ply = 0; ply <= size; ply++) {
+                game.seek(ply);
+                assertAtPly(expected.get(ply), game, ply, fen);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Redo After Unmake")
+    public void redo() {
+        Random random = new Random(2);
+        for (int i = 0; i < GAMES; i++) {
+            String fen = Perft.STANDARD_POSITIONS[i % Perft.STANDARD_POSITIONS.length].fen();
+            ChessGame game = Fen.parse(fen);
+            List<ChessGame> expected = playRandomMoves(game, GAME_LENGTH, random);
+            int size = game.getHistorySize();
+
+            while (game.getPly() > 0) {
+                game.unmakeMove();
+                assertAtPly(expected.get(game.getPly()), game, game.getPly(), fen);
+            }
+            Assertions.assertThrows(IllegalStateException.class, game::unmakeMove);
+            while (game.getPly() < size) {
+                game.redoMove();
+                assertAtPly(expected.get(game.getPly()), game, game.getPly(), fen);
+            }
+            Assertions.assertThrows(IllegalStateException.class, game::redoMove);
+        }
+    }
+
+    @Test
+    @DisplayName("Branching Replaces Later History")
+    public void branch() {
+        Random random = new Random(3);
+        for (int i = 0; i < GAMES; i++) {
+            String fen = Perft.STANDARD_POSITIONS[i % Perft.STANDARD_POSITIONS.length].fen();
+            ChessGame game = Fen.parse(fen);
+            playRandomMoves(game, GAME_LENGTH, random);
+            int size = game.getHistorySize();
+
+            // Repeating the recorded move keeps the history, a different one truncates it
+            int ply = random.nextInt(size);
+            game.seek(ply);
+            ChessMove next = game.getHistoryMove(ply);
+            Assertions.assertDoesNotThrow(() -> game.makeMove(next), fen + " ply " + ply);
+            Assertions.assertEquals(size, game.getHistorySize(), fen + " after repeating ply " + ply);
+
+            game.seek(ply);
+            ValidMoves moves = game.allValidMoves(game.getTeamTurn());
+            int recorded = Move.encode(game.getHistoryMove(ply));
+            int branch = Move.NONE;
+            for (int m = 0; m < moves.size() && branch == Move.NONE; m++) {
+                if (Move.key(moves.get(m)) != recorded) {
+                    branch = moves.get(m);
+                }
+            }
+            if (branch == Move.NONE) {
+                continue;
+            }
+            game.makeMove(branch);
+            Assertions.assertEquals(ply + 1, game.getHistorySize(), fen + " after branching at ply " + ply);
+            Assertions.assertEquals(Move.toChessMove(branch), game.getHistoryMove(ply), fen);
+
+            // Play on from the branch, past checkpoints the old line had stored
+            playRandomMoves(game, GAME_LENGTH - ply, random);
+            List<ChessGame> expected = replay(fen, game);
+            int branchedSize = game.getHistorySize();
+            for (int seek = 0; seek < 2 * branchedSize; seek++) {
+                int target = random.nextInt(branchedSize + 1);
+                game.seek(target);
+                assertAtPly(expected.get(target), game, target, fen + " branched at ply " + ply);
+            }
+        }
+    }
+
+    /**
+     * Makes random legal moves until the game has made the given number or
+     * has none left
+     *
+     * @return a copy of the game after every ply from the current one on,
+     * indexed by ply counted from the start of the current position
+     */
+    private static List<ChessGame> playRandomMoves(ChessGame game, int moves, Random random) {
+        List<ChessGame> positions = new ArrayList<>();
+        for (int i = 0; i < game.getPly(); i++) {
+            positions.add(null);
+        }
+        positions.add(new ChessGame(game));
+        for (int i = 0; i < moves; i++) {
+            ValidMoves legal = game.allValidMoves(game.getTeamTurn());
+            if (legal.isEmpty()) {
+                break;
+            }
+            game.makeMove(legal.get(random.nextInt(legal.size())));
+            positions.add(new ChessGame(game));
+        }
+        return positions;
+    }
+
+    /**
+     * Replays a game's history through the public ChessMove API on a fresh
+     * game, independent of seek and its checkpoints
+     */
+    private static List<ChessGame> replay(String fen, ChessGame game) {
+        ChessGame fresh = Fen.parse(fen);
+        List<ChessGame> positions = new ArrayList<>();
+        positions.add(new ChessGame(fresh));
+        for (int ply = 0; ply < game.getHistorySize(); ply++) {
+            ChessMove move = game.getHistoryMove(ply);
+            Assertions.assertDoesNotThrow(() -> fresh.makeMove(move), fen + " ply " + ply);
+            positions.add(new ChessGame(fresh));
+        }
+        return positions;
+    }
+
+    private static void assertAtPly(ChessGame expected, ChessGame actual, int ply, String message) {
+        message = message + " at ply " + ply;
+        Assertions.assertEquals(ply, actual.getPly(), message);
+        Assertions.assertEquals(expected, actual, message);
+        Assertions.assertEquals(expected.getBoard(), actual.getBoard(), message);
+        Assertions.assertEquals(expected.getZobristKey(), actual.getZobristKey(), message + " Zobrist key");
+        Assertions.assertEquals(expected.getHalfmoveClock(), actual.getHalfmoveClock(), message + " halfmove clock");
+    }
+}
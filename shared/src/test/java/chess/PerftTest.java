@@ -0,0 +1,70 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class PerftTest {
+
+    // Deep enough to reach castling, en passant and promotion in the suite, shallow enough for every build
+    private static final int DEPTH = 3;
+
+    @Test
+    @DisplayName("Standard Positions Match Published Counts")
+    public void standardPositions() {
+        for (Perft.Position position : Perft.STANDARD_POSITIONS) {
+            ChessGame game = Fen.parse(position.fen());
+            for (int depth = 1; depth <= DEPTH; depth++) {
+                Assertions.assertEquals(position.expected()[depth - 1], Perft.perft(game, depth),
+                        position.name() + " perft(" + depth + ")");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Perft Leaves Game Unchanged")
+    public void perftRestoresGame() {
+        for (Perft.Position position : Perft.STANDARD_POSITIONS) {
+            ChessGame game = Fen.parse(position.fen());
+            long key = game.getZobristKey();
+            Perft.perft(game, DEPTH);
+            Assertions.assertEquals(Fen.parse(position.fen()), game, position.name());
+            Assertions.assertEquals(key, game.getZobristKey(), position.name() + " Zobrist key");
+            Assertions.assertEquals(0, game.getPly(), position.name() + " ply");
+        }
+    }
+
+    @Test
+    @DisplayName("Perft Table Gives Same Counts")
+    public void perftTable() {
+        PerftTable table = new PerftTable(1);
+        for (Perft.Position position : Perft.STANDARD_POSITIONS) {
+            ChessGame game = Fen.parse(position.fen());
+            // Search twice so the second pass is answered from the table
+            for (int pass = 0; pass < 2; pass++) {
+                Assertions.assertEquals(position.expected()[DEPTH - 1], Perft.perft(game, DEPTH, table),
+                        position.name() + " pass " + pass);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Divide Sums To Perft")
+    public void divideSumsToPerft() {
+        for (Perft.Position position : Perft.STANDARD_POSITIONS) {
+            ChessGame game = Fen.parse(position.fen());
+            Map<ChessMove, Long> counts = Perft.divide(game, DEPTH);
+            Assertions.assertEquals(position.expected()[0], counts.size(), position.name() + " root moves");
+            long total = 0;
+            for (long count : counts.values()) {
+                total += count;
+            }
+            Assertions.assertEquals(position.expected()[DEPTH - 1], total, position.name());
+
+            Assertions.assertEquals(counts, Perft.divide(game, DEPTH, new PerftTable(1)),
+                    position.name() + " with a perft table");
+        }
+    }
+}